@@ -0,0 +1,81 @@
+package top.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import top.TOPTW;
+import top.TOPTWCandidateList;
+import top.TOPTWGRASP;
+import top.TOPTWReader;
+import top.TOPTWSolution;
+
+/**
+ * @class GRASPBenchmark
+ * @brief Throughput of the construction phase of GRASP and of the evaluation of its solutions.
+ *
+ * The constructive benchmark builds a complete greedy solution per operation. The other benchmarks work on a
+ * fixed solution built once per trial by a separate solver: the candidate evaluation checks every POI left out of
+ * it against all its routes, as the last step of the construction does before finding that no insertion is
+ * feasible. Solvers use a fixed seed, so every run measures the same sequence of solutions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GRASPBenchmark {
+    private static final long SEED = 42L;
+
+    @Param({"pr01.txt", "c101.txt", "pr05.txt", "pr10.txt"})
+    public String instance;
+
+    @Param({"3"})
+    public int maxSizeRCL;
+
+    private TOPTWGRASP constructor;
+    private TOPTWGRASP evaluator;
+    private TOPTWSolution solution;
+
+    @Setup
+    public void setUp() throws IOException {
+        TOPTW problem = TOPTWReader.readProblem(Instances.resolve(this.instance).toString());
+        this.constructor = new TOPTWGRASP(new TOPTWSolution(problem), SEED);
+        this.solution = new TOPTWSolution(problem);
+        this.evaluator = new TOPTWGRASP(this.solution, SEED);
+        this.evaluator.computeGreedySolution(this.maxSizeRCL);
+    }
+
+    @Benchmark
+    public TOPTWSolution computeGreedySolution() {
+        this.constructor.computeGreedySolution(this.maxSizeRCL);
+        return this.constructor.getSolution();
+    }
+
+    @Benchmark
+    public TOPTWCandidateList comprehensiveEvaluation() {
+        return this.evaluator.comprehensiveEvaluation();
+    }
+
+    @Benchmark
+    public double evaluateFitness() {
+        return this.solution.evaluateFitness();
+    }
+
+    @Benchmark
+    public String getInfoSolution() {
+        return this.solution.getInfoSolution();
+    }
+}
@@ -0,0 +1,95 @@
+package top.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import top.TOPTW;
+import top.TOPTWBinary;
+import top.TOPTWDistanceMatrix;
+import top.TOPTWReader;
+
+/**
+ * @class InstanceBenchmark
+ * @brief Throughput of loading instances and computing their distance matrix.
+ *
+ * Reading covers the text parser and the binary format, the latter with and without a mapped distance matrix.
+ * Both build the complete immutable instance, spatial index included. The distance matrix is measured on its own
+ * from the coordinates of the instance, as TOPTW computes it when an instance is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InstanceBenchmark {
+
+    @Param({"pr01.txt", "c101.txt", "pr05.txt", "pr10.txt"})
+    public String instance;
+
+    private String textFile;
+    private Path binaryFile;
+    private Path binaryMatrixFile;
+    private double[] x;
+    private double[] y;
+    private int size;
+    private int depotCopies;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.textFile = Instances.resolve(this.instance).toString();
+        this.binaryFile = Files.createTempFile("instance", ".bin");
+        this.binaryMatrixFile = Files.createTempFile("instance-matrix", ".bin");
+        TOPTWBinary.convert(this.textFile, this.binaryFile.toString(), false);
+        TOPTW problem = TOPTWBinary.convert(this.textFile, this.binaryMatrixFile.toString(), true);
+        this.size = problem.getPOIs() + 1;
+        this.depotCopies = problem.getVehicles() - 1;
+        this.x = new double[this.size];
+        this.y = new double[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.x[i] = problem.getX(i);
+            this.y[i] = problem.getY(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.binaryFile);
+        Files.deleteIfExists(this.binaryMatrixFile);
+    }
+
+    @Benchmark
+    public TOPTW readText() throws IOException {
+        return TOPTWReader.readProblem(this.textFile);
+    }
+
+    @Benchmark
+    public TOPTW readBinary() throws IOException {
+        return TOPTWBinary.read(this.binaryFile.toString());
+    }
+
+    @Benchmark
+    public TOPTW readBinaryWithMatrix() throws IOException {
+        return TOPTWBinary.read(this.binaryMatrixFile.toString());
+    }
+
+    @Benchmark
+    public TOPTWDistanceMatrix distanceMatrix() {
+        return new TOPTWDistanceMatrix(this.x, this.y, this.size, this.depotCopies);
+    }
+}
@@ -0,0 +1,24 @@
+package top.benchmarks;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @class Instances
+ * @brief Location of the instance files used as benchmark parameters.
+ *
+ * The shipped instances cover several sizes: pr01 has 48 POIs, c101 100, pr05 240 and pr10 288. The directory
+ * defaults to the Instances/TOPTW folder of the project, seen from the benchmarks module, and can be changed with
+ * the instances.dir system property.
+ */
+final class Instances {
+    static final String DIRECTORY_PROPERTY = "instances.dir";
+    static final String DEFAULT_DIRECTORY = "../Instances/TOPTW";
+
+    private Instances() {
+    }
+
+    static Path resolve(String name) {
+        return Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), name);
+    }
+}
@@ -0,0 +1,175 @@
+package es.ull.esit.utilities;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * @class KDTree
+ * @brief Two-dimensional KD-tree over a set of points for nearest-neighbour and radius queries.
+ *
+ * The tree is implicit: the indexes of the points are permuted so that every range of the permutation holds a
+ * subtree whose root is the median of the range along the x or y axis, alternating with the depth. The coordinates
+ * are copied in tree order, so queries walk contiguous memory and no node objects are created. Building takes
+ * O(n log n) time and queries do not modify the tree, so it can be shared between threads.
+ */
+public class KDTree {
+
+    private final int[] points;
+    private final double[] xs;
+    private final double[] ys;
+
+    /**
+     * @brief Builds the tree over all the points given by their coordinates.
+     * @param x X coordinate of each point.
+     * @param y Y coordinate of each point.
+     */
+    public KDTree(double[] x, double[] y) {
+        int n = x.length;
+        this.points = new int[n];
+        for (int i = 0; i < n; i++) {
+            this.points[i] = i;
+        }
+        this.build(x, y, 0, n, 0);
+        this.xs = new double[n];
+        this.ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            this.xs[i] = x[this.points[i]];
+            this.ys[i] = y[this.points[i]];
+        }
+    }
+
+    private void build(double[] x, double[] y, int low, int high, int depth) {
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            double[] axis = (depth & 1) == 0 ? x : y;
+            this.select(axis, low, high - 1, middle);
+            this.build(x, y, low, middle, depth + 1);
+            low = middle + 1;
+            depth++;
+        }
+    }
+
+    // Quickselect: deja en k el punto que le corresponde ordenando por el eje, menores a la izquierda
+    private void select(double[] axis, int low, int high, int k) {
+        while (low < high) {
+            double pivot = axis[this.points[(low + high) >>> 1]];
+            int i = low, j = high;
+            while (i <= j) {
+                while (axis[this.points[i]] < pivot) {
+                    i++;
+                }
+                while (axis[this.points[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = this.points[i];
+                    this.points[i] = this.points[j];
+                    this.points[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @brief Finds the nearest points to a location that satisfy a filter.
+     * @param x X coordinate of the location.
+     * @param y Y coordinate of the location.
+     * @param k Maximum number of points returned.
+     * @param filter Points for which the filter is false are skipped.
+     * @param result Array of at least k positions that receives the points, nearest first.
+     * @return The number of points found, k unless fewer points pass the filter.
+     */
+    public int nearest(double x, double y, int k, IntPredicate filter, int[] result) {
+        if (k <= 0) {
+            return 0;
+        }
+        double[] distances = new double[k];
+        return this.nearest(x, y, k, filter, result, distances, 0, this.points.length, 0, 0);
+    }
+
+    private int nearest(double x, double y, int k, IntPredicate filter, int[] result, double[] distances, int low,
+            int high, int depth, int found) {
+        if (low >= high) {
+            return found;
+        }
+        int middle = (low + high) >>> 1;
+        double dx = x - this.xs[middle];
+        double dy = y - this.ys[middle];
+        int point = this.points[middle];
+        double distance = dx * dx + dy * dy;
+        if ((found < k || distance < distances[k - 1]) && filter.test(point)) {
+            int position = found < k ? found++ : k - 1;
+            while (position > 0 && distances[position - 1] > distance) {
+                result[position] = result[position - 1];
+                distances[position] = distances[position - 1];
+                position--;
+            }
+            result[position] = point;
+            distances[position] = distance;
+        }
+        double split = (depth & 1) == 0 ? dx : dy;
+        if (split < 0) {
+            found = this.nearest(x, y, k, filter, result, distances, low, middle, depth + 1, found);
+            if (found < k || split * split < distances[k - 1]) {
+                found = this.nearest(x, y, k, filter, result, distances, middle + 1, high, depth + 1, found);
+            }
+        } else {
+            found = this.nearest(x, y, k, filter, result, distances, middle + 1, high, depth + 1, found);
+            if (found < k || split * split < distances[k - 1]) {
+                found = this.nearest(x, y, k, filter, result, distances, low, middle, depth + 1, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @brief Visits every point within a distance of a location, in no particular order.
+     * @param x X coordinate of the location.
+     * @param y Y coordinate of the location.
+     * @param radius Maximum Euclidean distance, inclusive.
+     * @param action Receives the index of each point found.
+     */
+    public void withinRadius(double x, double y, double radius, IntConsumer action) {
+        this.withinRadius(x, y, radius * radius, action, 0, this.points.length, 0);
+    }
+
+    private void withinRadius(double x, double y, double radius2, IntConsumer action, int low, int high, int depth) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            double dx = x - this.xs[middle];
+            double dy = y - this.ys[middle];
+            if (dx * dx + dy * dy <= radius2) {
+                action.accept(this.points[middle]);
+            }
+            double split = (depth & 1) == 0 ? dx : dy;
+            // Recorre en recursión el lado cercano y continúa con el lejano sólo si el círculo lo corta
+            if (split < 0) {
+                this.withinRadius(x, y, radius2, action, low, middle, depth + 1);
+                if (split * split > radius2) {
+                    return;
+                }
+                low = middle + 1;
+            } else {
+                this.withinRadius(x, y, radius2, action, middle + 1, high, depth + 1);
+                if (split * split > radius2) {
+                    return;
+                }
+                high = middle;
+            }
+            depth++;
+        }
+    }
+
+    public int size() {
+        return this.points.length;
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 import es.ull.esit.utilities.ExpositoUtilities;
+import es.ull.esit.utilities.KDTree;
 
 /**
  * @class TOPTW
@@ -11,45 +12,126 @@ import es.ull.esit.utilities.ExpositoUtilities;
  *
  * This class encapsulates all relevant data and operations for a TOPTW problem, including the number of nodes,
  * routes, coordinates, scores, service times, time windows, and the distance matrix. It provides methods to
- * access and modify these attributes, calculate distances between nodes, and manage depots and vehicles.
- * The class serves as the main data container for problem instances and supports initialization and manipulation
- * of all parameters required for solving and optimizing TOPTW routes.
+ * access these attributes and the distances between nodes.
+ * Instances are immutable: all data is given to the constructor, which also computes the distance matrix, and
+ * nothing changes afterwards. Everything that varies while solving belongs to TOPTWSolution, so a loaded instance
+ * can be read by any number of solvers and threads without copying or locking.
+ * Distances come from a precomputed matrix or, for instances too large for a quadratic matrix, are computed on
+ * demand; by default the matrix is used up to AUTOMATIC_MATRIX_NODES nodes and distances are computed on demand
+ * beyond, so memory stays linear on large instances. A caller may also supply its own provider, such as a
+ * TOPTWMappedDistances file shared by several processes. A KD-tree over the coordinates answers nearest-neighbour and radius queries in every mode.
  */
-public class TOPTW {
-    private int nodes;
-    private double[] x;
-    private double[] y;
-    private double[] score;
-    private double[] readyTime;
-    private double[] dueTime;
-    private double[] serviceTime;
-    private int vehicles;
-    private int depots;
-    private double maxTimePerRoute;
-    private double maxRoutes;
-    private double[][] distanceMatrix;
-
-    public TOPTW(int nodes, int routes) {
+public final class TOPTW {
+    public static final int DISTANCE_AUTOMATIC = -1;
+    public static final int DISTANCE_MATRIX = 0;
+    public static final int DISTANCE_MATRIX_SINGLE_PRECISION = 1;
+    public static final int DISTANCE_ON_DEMAND = 2;
+    public static final int AUTOMATIC_MATRIX_NODES = 4096;
+
+    private final int nodes;
+    private final double[] x;
+    private final double[] y;
+    private final double[] score;
+    private final double[] readyTime;
+    private final double[] dueTime;
+    private final double[] serviceTime;
+    private final int vehicles;
+    private final double maxTimePerRoute;
+    private final double maxRoutes;
+    private final TOPTWDistanceProvider distances;
+    private final KDTree spatialIndex;
+    private final TOPTWVisitSchedule schedule;
+
+    public TOPTW(int nodes, int routes, double[] x, double[] y, double[] serviceTime, double[] score,
+            double[] readyTime, double[] dueTime, double maxTimePerRoute) {
+        this(nodes, routes, x, y, serviceTime, score, readyTime, dueTime, maxTimePerRoute, DISTANCE_AUTOMATIC);
+    }
+
+    /**
+     * @brief Builds an instance from the data of its nodes, index 0 being the depot.
+     * @param nodes Number of POIs; each array holds nodes + 1 values and is copied.
+     * @param routes Number of routes (vehicles) available.
+     * @param maxTimePerRoute Time limit of every route.
+     * @param distanceMode DISTANCE_MATRIX, DISTANCE_MATRIX_SINGLE_PRECISION to store the distances as floats,
+     * halving the memory of the matrix, DISTANCE_ON_DEMAND to compute them from the coordinates, or
+     * DISTANCE_AUTOMATIC to choose by the number of nodes.
+     */
+    public TOPTW(int nodes, int routes, double[] x, double[] y, double[] serviceTime, double[] score,
+            double[] readyTime, double[] dueTime, double maxTimePerRoute, int distanceMode) {
+        this(nodes, routes, x, y, serviceTime, score, readyTime, dueTime, maxTimePerRoute, distanceMode, null);
+    }
+
+    /**
+     * @brief Builds an instance whose distances come from a provider created by the caller.
+     * @param distances Provider of the distances between the nodes, such as a TOPTWMappedDistances shared with
+     * other processes; it must cover the same nodes and depot copies as the instance.
+     */
+    public TOPTW(int nodes, int routes, double[] x, double[] y, double[] serviceTime, double[] score,
+            double[] readyTime, double[] dueTime, double maxTimePerRoute, TOPTWDistanceProvider distances) {
+        this(nodes, routes, x, y, serviceTime, score, readyTime, dueTime, maxTimePerRoute, DISTANCE_AUTOMATIC,
+                distances);
+    }
+
+    private TOPTW(int nodes, int routes, double[] x, double[] y, double[] serviceTime, double[] score,
+            double[] readyTime, double[] dueTime, double maxTimePerRoute, int distanceMode,
+            TOPTWDistanceProvider distances) {
         this.nodes = nodes;
-        this.depots = 0;
-        this.x = new double[this.nodes + 1];
-        this.y = new double[this.nodes + 1];
-        this.score = new double[this.nodes + 1];
-        this.readyTime = new double[this.nodes + 1];
-        this.dueTime = new double[this.nodes + 1];
-        this.serviceTime = new double[this.nodes + 1];
-        this.distanceMatrix = new double[this.nodes + 1][this.nodes + 1];
-        for (int i = 0; i < this.nodes + 1; i++) {
-            for (int j = 0; j < this.nodes + 1; j++) {
-                this.distanceMatrix[i][j] = 0.0;
-            }
-        }
+        this.x = Arrays.copyOf(x, this.nodes + 1);
+        this.y = Arrays.copyOf(y, this.nodes + 1);
+        this.score = Arrays.copyOf(score, this.nodes + 1);
+        this.readyTime = Arrays.copyOf(readyTime, this.nodes + 1);
+        this.dueTime = Arrays.copyOf(dueTime, this.nodes + 1);
+        this.serviceTime = Arrays.copyOf(serviceTime, this.nodes + 1);
+        this.maxTimePerRoute = maxTimePerRoute;
         this.maxRoutes = routes;
         this.vehicles = routes;
+        if (distanceMode == DISTANCE_AUTOMATIC) {
+            distanceMode = this.nodes + 1 <= AUTOMATIC_MATRIX_NODES ? DISTANCE_MATRIX : DISTANCE_ON_DEMAND;
+        }
+        if (distances != null) {
+            this.distances = distances;
+        } else if (distanceMode == DISTANCE_ON_DEMAND) {
+            this.distances = new TOPTWEuclideanDistances(this.x, this.y, this.nodes + 1, this.vehicles - 1);
+        } else if (distanceMode == DISTANCE_MATRIX_SINGLE_PRECISION) {
+            this.distances = new TOPTWFloatDistanceMatrix(this.x, this.y, this.nodes + 1, this.vehicles - 1);
+        } else {
+            this.distances = new TOPTWDistanceMatrix(this.x, this.y, this.nodes + 1, this.vehicles - 1);
+        }
+        this.spatialIndex = new KDTree(this.x, this.y);
+        this.schedule = null;
+    }
+
+    // Comparte todos los datos, que no cambian, con la otra instancia
+    private TOPTW(TOPTW other, TOPTWVisitSchedule schedule) {
+        this.nodes = other.nodes;
+        this.x = other.x;
+        this.y = other.y;
+        this.score = other.score;
+        this.readyTime = other.readyTime;
+        this.dueTime = other.dueTime;
+        this.serviceTime = other.serviceTime;
+        this.maxTimePerRoute = other.maxTimePerRoute;
+        this.maxRoutes = other.maxRoutes;
+        this.vehicles = other.vehicles;
+        this.distances = other.distances;
+        this.spatialIndex = other.spatialIndex;
+        this.schedule = schedule;
+    }
+
+    /**
+     * @brief Returns the same instance with the multi-day data of a periodic instance attached.
+     *
+     * The nodes, distances and spatial index are shared, not copied.
+     */
+    public TOPTW withSchedule(TOPTWVisitSchedule schedule) {
+        return new TOPTW(this, schedule);
     }
     
+    /**
+     * @brief Checks whether a node is the depot or one of the copies of the depot that close extra routes.
+     */
     public boolean isDepot(int a) {
-        if(a > this.nodes) {
+        if(a == 0 || a > this.nodes) {
             return true;
         }
         return false;
@@ -83,91 +165,65 @@ public class TOPTW {
         return distance;
     }
 
-    
-    public void calculateDistanceMatrix() {
-        for (int i = 0; i < this.nodes + 1; i++) {
-            for (int j = 0; j < this.nodes + 1; j++) {
-                if (i != j) {
-                    double diffXs = this.x[i] - this.x[j];
-                    double diffYs = this.y[i] - this.y[j];
-                    this.distanceMatrix[i][j] = Math.sqrt(diffXs * diffXs + diffYs * diffYs);
-                    this.distanceMatrix[j][i] = this.distanceMatrix[i][j];
-                } else {
-                    this.distanceMatrix[i][j] = 0.0;
-                }
-            }
-        }
+    public TOPTWDistanceProvider getDistances() {
+        return this.distances;
     }
 
-    public double getMaxTimePerRoute() {
-        return maxTimePerRoute;
+    /**
+     * @brief Multi-day data read from the instance file, or null if the instance was built without it.
+     */
+    public TOPTWVisitSchedule getSchedule() {
+        return this.schedule;
     }
 
-    public void setMaxTimePerRoute(double maxTimePerRoute) {
-        this.maxTimePerRoute = maxTimePerRoute;
+    /**
+     * @brief Spatial index over the coordinates of the depot (point 0) and the POIs.
+     */
+    public KDTree getSpatialIndex() {
+        return this.spatialIndex;
+    }
+
+    public double getMaxTimePerRoute() {
+        return maxTimePerRoute;
     }
 
     public double getMaxRoutes() {
         return maxRoutes;
     }
 
-    public void setMaxRoutes(double maxRoutes) {
-        this.maxRoutes = maxRoutes;
-    }
-    
     public int getPOIs() {
         return this.nodes;
     }
 
     public double getDistance(int i, int j) {
-        if(this.isDepot(i)) { i=0; }
-        if(this.isDepot(j)) { j=0; }
-        return this.distanceMatrix[i][j];
+        return this.distances.getDistance(i, j);
     }
 
     public double getTime(int i, int j) {
-        if(this.isDepot(i)) { i=0; }
-        if(this.isDepot(j)) { j=0; }
-        return this.distanceMatrix[i][j];
+        return this.distances.getDistance(i, j);
     }
 
     public int getNodes() {
         return this.nodes;
     }
 
-    public void setNodes(int nodes) {
-        this.nodes = nodes;
-    }
-
     public double getX(int index) {
         if(this.isDepot(index)) { index=0; }
         return this.x[index];
     }
 
-    public void setX(int index, double x) {
-        this.x[index] = x;
-    }
-
     public double getY(int index) {
         if(this.isDepot(index)) { index=0; }
         return this.y[index];
     }
 
-    public void setY(int index, double y) {
-        this.y[index] = y;
-    }
-
     public double getScore(int index) {
         if(this.isDepot(index)) { index=0; }
         return this.score[index];
     }
     
     public double[] getScore() {
-        return this.score;
-    }
-
-    public void setScore(int index, double score) {
-        this.score[index] = score;
+        return Arrays.copyOf(this.score, this.score.length);
     }
 
     public double getReadyTime(int index) {
@@ -175,28 +231,16 @@ public class TOPTW {
         return this.readyTime[index];
     }
 
-    public void setReadyTime(int index, double readyTime) {
-        this.readyTime[index] = readyTime;
-    }
-
     public double getDueTime(int index) {
         if(this.isDepot(index)) { index=0; }
         return this.dueTime[index];
     }
 
-    public void setDueTime(int index, double dueTime) {
-        this.dueTime[index] = dueTime;
-    }
-
     public double getServiceTime(int index) {
         if(this.isDepot(index)) { index=0; }
         return this.serviceTime[index];
     }
 
-    public void setServiceTime(int index, double serviceTime) {
-        this.serviceTime[index] = serviceTime;
-    }
-
     public int getVehicles() {
         return this.vehicles;
     }
@@ -230,14 +274,4 @@ public class TOPTW {
         text += ExpositoUtilities.getFormat(strings, width) + "\n";
         return text;
     }
-
-    public int addNode() {
-        this.nodes++;
-        return this.nodes;
-    }
-    
-    public int addNodeDepot() {
-        this.depots++;
-        return this.depots;
-    }
 }
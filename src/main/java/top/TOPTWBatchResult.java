@@ -0,0 +1,98 @@
+package top;
+
+import java.util.Locale;
+
+/**
+ * @class TOPTWBatchResult
+ * @brief Outcome of one job of a batch run: one instance solved with one configuration and seed.
+ *
+ * A job that could not run, usually because its instance file could not be read, has no GRASP result and keeps
+ * the error message instead. Each result is written as one CSV row so sweeps can be compared with any tool.
+ */
+public class TOPTWBatchResult {
+    public static final String CSV_HEADER =
+            "instance,rcl_size,max_iterations,seed,best,average,iterations,time_to_best_ms,wall_ms,error";
+
+    private final String instance;
+    private final int maxSizeRCL;
+    private final int maxIterations;
+    private final long seed;
+    private final TOPTWGRASPResult result;
+    private final long wallNanos;
+    private final String error;
+
+    public TOPTWBatchResult(String instance, int maxSizeRCL, int maxIterations, long seed, TOPTWGRASPResult result,
+            long wallNanos, String error) {
+        this.instance = instance;
+        this.maxSizeRCL = maxSizeRCL;
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+        this.result = result;
+        this.wallNanos = wallNanos;
+        this.error = error;
+    }
+
+    /**
+     * @brief Formats the result as a CSV row with the columns of CSV_HEADER.
+     */
+    public String toCSV() {
+        StringBuilder row = new StringBuilder();
+        row.append(quote(this.instance)).append(',').append(this.maxSizeRCL).append(',').append(this.maxIterations)
+                .append(',').append(this.seed).append(',');
+        if (this.result != null) {
+            row.append(this.result.getBestFitness()).append(',').append(this.result.getAverageFitness()).append(',')
+                    .append(this.result.getIterations()).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f", this.result.getTimeToBestMillis())).append(',');
+        } else {
+            row.append(",,,,");
+        }
+        row.append(String.format(Locale.ROOT, "%.3f", this.getWallMillis())).append(',');
+        if (this.error != null) {
+            row.append(quote(this.error));
+        }
+        return row.toString();
+    }
+
+    private static String quote(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    public String getInstance() {
+        return this.instance;
+    }
+
+    public int getMaxSizeRCL() {
+        return this.maxSizeRCL;
+    }
+
+    public int getMaxIterations() {
+        return this.maxIterations;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * @brief Result of the GRASP run, or null if the job failed.
+     */
+    public TOPTWGRASPResult getResult() {
+        return this.result;
+    }
+
+    public double getWallMillis() {
+        return this.wallNanos / 1e6;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    @Override
+    public String toString() {
+        return this.toCSV();
+    }
+}
@@ -0,0 +1,264 @@
+package top;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @class TOPTWBatchRunner
+ * @brief Solves a set of instances with every combination of a grid of GRASP parameters in parallel.
+ *
+ * Every instance is combined with every RCL size, iteration count and seed, and each combination is a job that
+ * runs a sequential GRASP on its own solver. Jobs are scheduled on a work-stealing ForkJoinPool: each instance is
+ * read once by a task that then forks one subtask per job, so slow instances do not leave threads idle while other
+ * instances still have jobs pending. Instances are immutable and shared by all their jobs. Since every job seeds
+ * its own solver, the results do not depend on the number of threads or on the order in which jobs finish, and
+ * they are returned in the order of the grid whatever the schedule was.
+ */
+public class TOPTWBatchRunner {
+    private int[] rclSizes;
+    private int[] iterations;
+    private long[] seeds;
+    private int threads;
+
+    public TOPTWBatchRunner() {
+        this.rclSizes = new int[]{3, 5, 7};
+        this.iterations = new int[]{10000};
+        this.seeds = new long[]{1L};
+        this.threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @brief Lists the instance files at a location.
+     * @param location A directory, whose regular files are all taken, a single file, or a glob pattern such as
+     * Instances/TOPTW/c*.txt matched against the files of the directory the pattern is in.
+     * @return The files found, sorted by name.
+     */
+    public static List<Path> findInstances(String location) throws IOException {
+        Path path = Paths.get(location);
+        List<Path> files = new ArrayList<>();
+        if (Files.isRegularFile(path)) {
+            files.add(path);
+            return files;
+        }
+        Path directory = path;
+        String glob = "*";
+        if (!Files.isDirectory(path)) {
+            directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+            glob = path.getFileName().toString();
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * @brief Runs every job of the grid over a set of instances.
+     * @param instances Instance files in text format.
+     * @return One result per instance and combination of parameters, ordered by instance, RCL size, iteration
+     * count and seed.
+     */
+    public List<TOPTWBatchResult> run(List<Path> instances) {
+        int jobsPerInstance = this.rclSizes.length * this.iterations.length * this.seeds.length;
+        TOPTWBatchResult[] results = new TOPTWBatchResult[instances.size() * jobsPerInstance];
+        List<InstanceTask> tasks = new ArrayList<>();
+        for (int i = 0; i < instances.size(); i++) {
+            tasks.add(new InstanceTask(instances.get(i), i * jobsPerInstance, results));
+        }
+        ForkJoinPool pool = new ForkJoinPool(this.threads);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * @brief Writes results as CSV, header first.
+     */
+    public static void writeCSV(List<TOPTWBatchResult> results, PrintStream out) {
+        out.println(TOPTWBatchResult.CSV_HEADER);
+        for (TOPTWBatchResult result : results) {
+            out.println(result.toCSV());
+        }
+    }
+
+    // Lee una instancia y reparte sus trabajos, uno por combinación de parámetros
+    private class InstanceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path file;
+        private final int first;
+        private final TOPTWBatchResult[] results;
+
+        InstanceTask(Path file, int first, TOPTWBatchResult[] results) {
+            this.file = file;
+            this.first = first;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            String name = this.file.getFileName().toString();
+            TOPTW problem = null;
+            String error = null;
+            try {
+                problem = TOPTWReader.readProblem(this.file.toString());
+            } catch (IOException e) {
+                error = e.getMessage();
+            }
+            List<JobTask> jobs = new ArrayList<>();
+            int index = this.first;
+            for (int rcl : rclSizes) {
+                for (int maxIterations : iterations) {
+                    for (long seed : seeds) {
+                        if (problem == null) {
+                            this.results[index++] = new TOPTWBatchResult(name, rcl, maxIterations, seed, null, 0,
+                                    error);
+                        } else {
+                            jobs.add(new JobTask(name, problem, rcl, maxIterations, seed, index++, this.results));
+                        }
+                    }
+                }
+            }
+            ForkJoinTask.invokeAll(jobs);
+        }
+    }
+
+    private static class JobTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final TOPTW problem;
+        private final int maxSizeRCL;
+        private final int maxIterations;
+        private final long seed;
+        private final int index;
+        private final TOPTWBatchResult[] results;
+
+        JobTask(String name, TOPTW problem, int maxSizeRCL, int maxIterations, long seed, int index,
+                TOPTWBatchResult[] results) {
+            this.name = name;
+            this.problem = problem;
+            this.maxSizeRCL = maxSizeRCL;
+            this.maxIterations = maxIterations;
+            this.seed = seed;
+            this.index = index;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            TOPTWGRASPResult result = null;
+            String error = null;
+            try {
+                TOPTWGRASP grasp = new TOPTWGRASP(new TOPTWSolution(this.problem), this.seed);
+                result = grasp.GRASP(new TOPTWGRASPConfig(this.maxIterations, this.maxSizeRCL));
+            } catch (RuntimeException e) {
+                error = e.toString();
+            }
+            this.results[this.index] = new TOPTWBatchResult(this.name, this.maxSizeRCL, this.maxIterations,
+                    this.seed, result, System.nanoTime() - start, error);
+        }
+    }
+
+    public int[] getRCLSizes() {
+        return this.rclSizes.clone();
+    }
+
+    public void setRCLSizes(int... rclSizes) {
+        this.rclSizes = rclSizes.clone();
+    }
+
+    public int[] getIterations() {
+        return this.iterations.clone();
+    }
+
+    public void setIterations(int... iterations) {
+        this.iterations = iterations.clone();
+    }
+
+    public long[] getSeeds() {
+        return this.seeds.clone();
+    }
+
+    public void setSeeds(long... seeds) {
+        this.seeds = seeds.clone();
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * @brief Runs a batch from the command line and prints the results as CSV.
+     * @param args Location of the instances (directory, file or glob) followed by any of the options
+     * -rcl 3,5,7, -iterations 10000, -seeds 1,2,3, -threads n and -out file.csv.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            System.err.println("Usage: TOPTWBatchRunner <directory|file|glob> [-rcl 3,5,7] [-iterations 10000]"
+                    + " [-seeds 1,2,3] [-threads n] [-out file.csv]");
+            return;
+        }
+        TOPTWBatchRunner runner = new TOPTWBatchRunner();
+        String out = null;
+        for (int i = 1; i < args.length; i += 2) {
+            String[] values = args[i + 1].split(",");
+            switch (args[i]) {
+                case "-rcl":
+                    runner.setRCLSizes(Arrays.stream(values).mapToInt(Integer::parseInt).toArray());
+                    break;
+                case "-iterations":
+                    runner.setIterations(Arrays.stream(values).mapToInt(Integer::parseInt).toArray());
+                    break;
+                case "-seeds":
+                    runner.setSeeds(Arrays.stream(values).mapToLong(Long::parseLong).toArray());
+                    break;
+                case "-threads":
+                    runner.setThreads(Integer.parseInt(args[i + 1]));
+                    break;
+                case "-out":
+                    out = args[i + 1];
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        List<TOPTWBatchResult> results = runner.run(findInstances(args[0]));
+        if (out == null) {
+            writeCSV(results, System.out);
+        } else {
+            try (PrintStream stream = new PrintStream(out, "UTF-8")) {
+                writeCSV(results, stream);
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package top;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * @class TOPTWBinary
+ * @brief Compact binary format of TOPTW instances, used as a cache of the text files.
+ *
+ * A file starts with a 64-byte little-endian header: magic number, format version, number of POIs, number of
+ * routes, flags, number of days of the schedule, the time limit of the routes, the CRC32 of the text file it was
+ * converted from, the CRC32 of the header and the data, and the number of visit combinations of the schedule.
+ * The node data follows as six arrays of doubles (x, y, service time, score, ready time and due time), each with
+ * one value per node and the depot first. The multi-day data of the instance (TOPTWVisitSchedule) comes next, when
+ * it has any: the duration and capacity of each day as doubles, then as ints the frequency and the number of visit
+ * combinations of each node and all the combinations, padded to a multiple of 8 bytes. When the matrix flag is
+ * set, the file ends with the full distance matrix of the real nodes, row by row, which is mapped in place when
+ * the instance is read so the distances are neither recomputed nor copied to the heap. The node and schedule data
+ * are small and are always verified against their checksum; the matrix is only checked to have the right size.
+ * load() keeps a binary file next to each text instance and rewrites it whenever the checksum of the text file
+ * stops matching the one recorded in the header, so stale caches are never used.
+ */
+public class TOPTWBinary {
+    public static final int VERSION = 2;
+    private static final int MAGIC = 0x42505454;
+    private static final int HEADER_BYTES = 64;
+    private static final int CHECKED_HEADER_BYTES = 40;
+    private static final int NODE_ARRAYS = 6;
+    private static final int FLAG_MATRIX = 1;
+
+    private TOPTWBinary() {
+    }
+
+    /**
+     * @brief Loads an instance through its binary cache, converting the text file when the cache is missing or stale.
+     * @param textFile Path of the instance in text format.
+     * @param binaryFile Path of the binary cache.
+     * @param includeMatrix True to keep the distance matrix in the cache and map it when reading.
+     * @return The instance.
+     * @throws IOException If a file cannot be read or written, or the text file is not a valid instance.
+     */
+    public static TOPTW load(String textFile, String binaryFile, boolean includeMatrix) throws IOException {
+        long sourceChecksum = checksum(Paths.get(textFile));
+        Path binary = Paths.get(binaryFile);
+        if (Files.isRegularFile(binary)) {
+            ByteBuffer header = readHeader(binary);
+            if (header != null && header.getLong(32) == sourceChecksum
+                    && ((header.getInt(16) & FLAG_MATRIX) != 0) == includeMatrix) {
+                try {
+                    return read(binaryFile);
+                } catch (TOPTWFormatException e) {
+                    // Caché dañada: se vuelve a generar a partir del texto
+                }
+            }
+        }
+        return convert(textFile, binaryFile, includeMatrix, sourceChecksum);
+    }
+
+    /**
+     * @brief Converts an instance from the text format to the binary format.
+     * @return The instance read from the text file, with the same data and schedule as read() gives for the new
+     * binary file; with the matrix included, it is the instance read from that file.
+     */
+    public static TOPTW convert(String textFile, String binaryFile, boolean includeMatrix) throws IOException {
+        return convert(textFile, binaryFile, includeMatrix, checksum(Paths.get(textFile)));
+    }
+
+    private static TOPTW convert(String textFile, String binaryFile, boolean includeMatrix, long sourceChecksum)
+            throws IOException {
+        if (!includeMatrix) {
+            TOPTW problem = TOPTWReader.readProblem(textFile);
+            write(problem, binaryFile, false, sourceChecksum);
+            return problem;
+        }
+        // La matriz se calcula una sola vez, al escribirla, y se usa mapeada en lugar de construir otra en memoria
+        TOPTW problem = TOPTWReader.readProblem(textFile, TOPTW.DISTANCE_ON_DEMAND);
+        write(problem, binaryFile, true, sourceChecksum);
+        return read(binaryFile);
+    }
+
+    /**
+     * @brief Writes an instance in the binary format.
+     * @param problem Instance to write.
+     * @param filePath Path of the file, replaced atomically so readers never see it half written.
+     * @param includeMatrix True to append the distance matrix.
+     * @param sourceChecksum CRC32 of the text file the instance comes from, or 0 if there is none.
+     */
+    public static void write(TOPTW problem, String filePath, boolean includeMatrix, long sourceChecksum)
+            throws IOException {
+        int size = problem.getPOIs() + 1;
+        TOPTWVisitSchedule schedule = problem.getSchedule();
+        int days = schedule == null ? 0 : schedule.getDays();
+        int patterns = 0;
+        for (int i = 0; schedule != null && i < size; i++) {
+            patterns += schedule.getPatternCount(i);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(problem.getPOIs()).putInt(problem.getVehicles());
+        header.putInt(includeMatrix ? FLAG_MATRIX : 0).putInt(days);
+        header.putDouble(problem.getMaxTimePerRoute()).putLong(sourceChecksum);
+        header.putLong(CHECKED_HEADER_BYTES + 8, patterns);
+        double[] x = new double[size];
+        double[] y = new double[size];
+        ByteBuffer nodes = ByteBuffer.allocate((int) dataBytes(size, days, patterns)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; i++) {
+            x[i] = problem.getX(i);
+            y[i] = problem.getY(i);
+        }
+        for (int i = 0; i < size; i++) {
+            nodes.putDouble(x[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            nodes.putDouble(y[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            nodes.putDouble(problem.getServiceTime(i));
+        }
+        for (int i = 0; i < size; i++) {
+            nodes.putDouble(problem.getScore(i));
+        }
+        for (int i = 0; i < size; i++) {
+            nodes.putDouble(problem.getReadyTime(i));
+        }
+        for (int i = 0; i < size; i++) {
+            nodes.putDouble(problem.getDueTime(i));
+        }
+        if (schedule != null) {
+            for (int d = 0; d < days; d++) {
+                nodes.putDouble(schedule.getDayDuration(d));
+            }
+            for (int d = 0; d < days; d++) {
+                nodes.putDouble(schedule.getDayCapacity(d));
+            }
+            for (int i = 0; i < size; i++) {
+                nodes.putInt(schedule.getFrequency(i));
+            }
+            for (int i = 0; i < size; i++) {
+                nodes.putInt(schedule.getPatternCount(i));
+            }
+            for (int i = 0; i < size; i++) {
+                for (int c = 0; c < schedule.getPatternCount(i); c++) {
+                    nodes.putInt(schedule.getPattern(i, c));
+                }
+            }
+        }
+        nodes.clear();
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, CHECKED_HEADER_BYTES);
+        crc.update(nodes.duplicate());
+        header.putLong(CHECKED_HEADER_BYTES, crc.getValue());
+        header.clear();
+
+        Path file = Paths.get(filePath);
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                TOPTWMappedDistances.writeFully(channel, header);
+                TOPTWMappedDistances.writeFully(channel, nodes);
+                if (includeMatrix) {
+                    TOPTWMappedDistances.writeRows(channel, x, y, size);
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @brief Reads an instance in the binary format.
+     * @param filePath Path of the file.
+     * @return The instance, backed by the mapped distance matrix if the file has one.
+     * @throws TOPTWFormatException If the file is not a binary instance of this version or its data is damaged.
+     */
+    public static TOPTW read(String filePath) throws IOException {
+        Path file = Paths.get(filePath);
+        ByteBuffer header = readHeader(file);
+        if (header == null) {
+            throw new TOPTWFormatException(filePath, "Not a binary TOPTW instance of version " + VERSION);
+        }
+        int pois = header.getInt(8);
+        int routes = header.getInt(12);
+        boolean matrix = (header.getInt(16) & FLAG_MATRIX) != 0;
+        int days = header.getInt(20);
+        long patterns = header.getLong(CHECKED_HEADER_BYTES + 8);
+        if (pois < 0 || routes < 1 || days < 0 || patterns < 0 || patterns > Integer.MAX_VALUE) {
+            throw new TOPTWFormatException(filePath, "Invalid header");
+        }
+        int size = pois + 1;
+        long nodeBytes = dataBytes(size, days, (int) patterns);
+        long expected = HEADER_BYTES + nodeBytes + (matrix ? 8L * size * size : 0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != expected) {
+                throw new TOPTWFormatException(filePath, "Expected " + expected + " bytes but found " + channel.size());
+            }
+            MappedByteBuffer nodes = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, nodeBytes);
+            nodes.order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 0, CHECKED_HEADER_BYTES);
+            crc.update(nodes.duplicate());
+            if (crc.getValue() != header.getLong(CHECKED_HEADER_BYTES)) {
+                throw new TOPTWFormatException(filePath, "Checksum mismatch");
+            }
+            DoubleBuffer values = nodes.asDoubleBuffer();
+            double[] x = new double[size];
+            double[] y = new double[size];
+            double[] serviceTime = new double[size];
+            double[] score = new double[size];
+            double[] readyTime = new double[size];
+            double[] dueTime = new double[size];
+            values.get(x).get(y).get(serviceTime).get(score).get(readyTime).get(dueTime);
+            TOPTWVisitSchedule schedule = null;
+            if (days > 0) {
+                schedule = readSchedule(nodes, size, days, (int) patterns, filePath);
+            }
+            double maxTimePerRoute = header.getDouble(24);
+            TOPTW problem;
+            if (!matrix) {
+                problem = new TOPTW(pois, routes, x, y, serviceTime, score, readyTime, dueTime, maxTimePerRoute);
+            } else {
+                TOPTWMappedDistances distances = TOPTWMappedDistances.map(channel, HEADER_BYTES + nodeBytes, size,
+                        routes - 1);
+                problem = new TOPTW(pois, routes, x, y, serviceTime, score, readyTime, dueTime, maxTimePerRoute,
+                        distances);
+            }
+            return schedule == null ? problem : problem.withSchedule(schedule);
+        }
+    }
+
+    private static TOPTWVisitSchedule readSchedule(ByteBuffer data, int size, int days, int patterns, String filePath)
+            throws TOPTWFormatException {
+        data.position(NODE_ARRAYS * 8 * size);
+        double[] dayDuration = new double[days];
+        double[] dayCapacity = new double[days];
+        for (int d = 0; d < days; d++) {
+            dayDuration[d] = data.getDouble();
+        }
+        for (int d = 0; d < days; d++) {
+            dayCapacity[d] = data.getDouble();
+        }
+        int[] frequency = new int[size];
+        for (int i = 0; i < size; i++) {
+            frequency[i] = data.getInt();
+        }
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            int count = data.getInt();
+            if (count < 0 || offsets[i] + count > patterns) {
+                throw new TOPTWFormatException(filePath, "Invalid number of visit combinations: " + count);
+            }
+            offsets[i + 1] = offsets[i] + count;
+        }
+        if (offsets[size] != patterns) {
+            throw new TOPTWFormatException(filePath, "Invalid number of visit combinations: " + patterns);
+        }
+        int[] combinations = new int[patterns];
+        for (int c = 0; c < patterns; c++) {
+            combinations[c] = data.getInt();
+        }
+        return new TOPTWVisitSchedule(dayDuration, dayCapacity, frequency, offsets, combinations);
+    }
+
+    // Bytes de los datos de los nodos y de los días, redondeados a un múltiplo de 8 para alinear la matriz
+    private static long dataBytes(int size, int days, int patterns) {
+        long scheduleBytes = days == 0 ? 0 : 16L * days + 8L * size + 4L * patterns;
+        return NODE_ARRAYS * 8L * size + (scheduleBytes + 7) / 8 * 8;
+    }
+
+    // Devuelve la cabecera si el fichero es una instancia binaria de esta versión, o null en otro caso
+    private static ByteBuffer readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return null;
+                }
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return null;
+            }
+            return header;
+        }
+    }
+
+    /**
+     * @brief Computes the CRC32 of the contents of a file.
+     */
+    public static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * @brief Converts text instances to the binary format.
+     * @param args Optional -matrix flag to include the distance matrix, followed by pairs of text and binary paths.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean includeMatrix = args.length > 0 && args[0].equals("-matrix");
+        int first = includeMatrix ? 1 : 0;
+        if (args.length == first || (args.length - first) % 2 != 0) {
+            System.err.println("Usage: TOPTWBinary [-matrix] <text file> <binary file> ...");
+            return;
+        }
+        for (int i = first; i < args.length; i += 2) {
+            convert(args[i], args[i + 1], includeMatrix);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package top;
+
+/**
+ * @class TOPTWCandidateList
+ * @brief Reusable buffer of insertion candidates stored as parallel primitive arrays.
+ *
+ * Each entry describes the insertion of a customer into a route after a given predecessor, together with the
+ * departure time it produces at the successor (the cost used to rank candidates) and the score of the customer.
+ * The buffer is allocated once with the maximum number of candidates and cleared between uses, so filling it
+ * does not create any object. Entries kept with offer are ordered by cost and, for equal costs, by customer.
+ */
+public class TOPTWCandidateList {
+    private int[] customers;
+    private int[] routes;
+    private int[] predecessors;
+    private double[] costs;
+    private double[] scores;
+    private int size;
+
+    public TOPTWCandidateList(int capacity) {
+        this.customers = new int[capacity];
+        this.routes = new int[capacity];
+        this.predecessors = new int[capacity];
+        this.costs = new double[capacity];
+        this.scores = new double[capacity];
+        this.size = 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public void add(int customer, int route, int predecessor, double cost, double score) {
+        this.set(this.size, customer, route, predecessor, cost, score);
+        this.size++;
+    }
+
+    /**
+     * @brief Inserts a candidate keeping only the best entries, ordered by cost.
+     * @param limit Maximum number of entries kept in the list.
+     * @return True if the candidate is among the best limit entries seen so far.
+     *
+     * The list works as a sorted insertion buffer: a candidate worse than the last entry of a full list is
+     * discarded, otherwise it is shifted into place and the last entry falls off. With the small limits used for
+     * restricted candidate lists this is linear in the number of candidates offered.
+     */
+    public boolean offer(int customer, int route, int predecessor, double cost, double score, int limit) {
+        if (limit <= 0) {
+            return false;
+        }
+        int position;
+        if (this.size < limit) {
+            position = this.size;
+            this.size++;
+        } else if (this.follows(this.size - 1, cost, customer)) {
+            position = this.size - 1;
+        } else {
+            return false;
+        }
+        while (position > 0 && this.follows(position - 1, cost, customer)) {
+            this.set(position, this.customers[position - 1], this.routes[position - 1], this.predecessors[position - 1],
+                    this.costs[position - 1], this.scores[position - 1]);
+            position--;
+        }
+        this.set(position, customer, route, predecessor, cost, score);
+        return true;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int capacity() {
+        return this.customers.length;
+    }
+
+    public int getCustomer(int index) {
+        return this.customers[index];
+    }
+
+    public int getRoute(int index) {
+        return this.routes[index];
+    }
+
+    public int getPredecessor(int index) {
+        return this.predecessors[index];
+    }
+
+    public double getCost(int index) {
+        return this.costs[index];
+    }
+
+    public double getScore(int index) {
+        return this.scores[index];
+    }
+
+    private boolean follows(int a, double cost, int customer) {
+        return this.costs[a] > cost || (this.costs[a] == cost && this.customers[a] > customer);
+    }
+
+    private void set(int index, int customer, int route, int predecessor, double cost, double score) {
+        this.customers[index] = customer;
+        this.routes[index] = route;
+        this.predecessors[index] = predecessor;
+        this.costs[index] = cost;
+        this.scores[index] = score;
+    }
+}
@@ -0,0 +1,15 @@
+package top;
+
+/**
+ * @class TOPTWDistanceProvider
+ * @brief Source of the travel distances between the nodes of a TOPTW instance.
+ *
+ * Node indexes are those used by TOPTWSolution: the depot, the POIs and the copies of the depot that close the
+ * extra routes, which are at distance 0 from the depot. Implementations trade memory for lookup time, from a
+ * precomputed matrix to computing each distance from the coordinates on demand, and must be safe to read from
+ * several threads.
+ */
+public interface TOPTWDistanceProvider {
+
+    double getDistance(int i, int j);
+}
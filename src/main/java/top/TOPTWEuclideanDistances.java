@@ -0,0 +1,39 @@
+package top;
+
+/**
+ * @class TOPTWEuclideanDistances
+ * @brief Distance provider that computes every Euclidean distance from the coordinates when it is requested.
+ *
+ * It needs memory linear in the number of nodes, so instances whose quadratic matrix would not fit can be loaded
+ * and solved, at the price of a square root per lookup. Depot copies are translated to node 0 through a table, as
+ * TOPTWDistanceMatrix does, and the distances are bitwise identical to the ones stored in the matrix.
+ */
+public class TOPTWEuclideanDistances implements TOPTWDistanceProvider {
+    private final double[] x;
+    private final double[] y;
+    private final int[] nodes;
+
+    /**
+     * @param x X coordinate of each real node, not copied.
+     * @param y Y coordinate of each real node, not copied.
+     * @param size Number of real nodes, the depot included.
+     * @param depotCopies Number of depot copies indexed after the real nodes.
+     */
+    public TOPTWEuclideanDistances(double[] x, double[] y, int size, int depotCopies) {
+        this.x = x;
+        this.y = y;
+        this.nodes = new int[size + depotCopies];
+        for (int i = 0; i < size; i++) {
+            this.nodes[i] = i;
+        }
+    }
+
+    @Override
+    public double getDistance(int i, int j) {
+        int a = this.nodes[i];
+        int b = this.nodes[j];
+        double diffXs = this.x[a] - this.x[b];
+        double diffYs = this.y[a] - this.y[b];
+        return Math.sqrt(diffXs * diffXs + diffYs * diffYs);
+    }
+}
@@ -0,0 +1,68 @@
+package top;
+
+/**
+ * @class TOPTWFloatDistanceMatrix
+ * @brief Euclidean distance matrix stored in a single contiguous array of floats.
+ *
+ * Same layout and depot translation as TOPTWDistanceMatrix, with half its footprint for large instances. Each
+ * distance is computed in double precision and rounded once to the nearest float, so lookups can differ from the
+ * exact distance in the last bits of a float.
+ */
+public class TOPTWFloatDistanceMatrix implements TOPTWDistanceProvider {
+    private final int size;
+    private final int[] rowOffsets;
+    private final int[] columns;
+    private final float[] values;
+
+    /**
+     * @brief Computes the distance matrix of a set of points.
+     * @param x X coordinate of each real node.
+     * @param y Y coordinate of each real node.
+     * @param size Number of real nodes, the depot included.
+     * @param depotCopies Number of depot copies indexed after the real nodes.
+     */
+    public TOPTWFloatDistanceMatrix(double[] x, double[] y, int size, int depotCopies) {
+        if ((long)size * size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many nodes for a distance matrix: " + size);
+        }
+        this.size = size;
+        this.columns = new int[size + depotCopies];
+        this.rowOffsets = new int[size + depotCopies];
+        for (int i = 0; i < size; i++) {
+            this.columns[i] = i;
+            this.rowOffsets[i] = i * size;
+        }
+        // Las copias del depósito comparten la fila y la columna del nodo 0, ya inicializadas a 0
+        this.values = new float[size * size];
+        this.calculate(x, y);
+    }
+
+    // Calcula sólo el triángulo superior y lo refleja en el inferior; la diagonal queda a 0
+    private void calculate(double[] x, double[] y) {
+        for (int i = 0; i < this.size; i++) {
+            for (int j = i + 1; j < this.size; j++) {
+                double diffXs = x[i] - x[j];
+                double diffYs = y[i] - y[j];
+                float distance = (float)Math.sqrt(diffXs * diffXs + diffYs * diffYs);
+                this.values[i * this.size + j] = distance;
+                this.values[j * this.size + i] = distance;
+            }
+        }
+    }
+
+    @Override
+    public double getDistance(int i, int j) {
+        return this.values[this.rowOffsets[i] + this.columns[j]];
+    }
+
+    /**
+     * @brief Maps a node index, depot copies included, to the index of the real node it represents.
+     */
+    public int getNode(int index) {
+        return this.columns[index];
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+}
@@ -0,0 +1,46 @@
+package top;
+
+import java.io.IOException;
+
+/**
+ * @class TOPTWFormatException
+ * @brief Signals that an instance file does not follow the expected format.
+ *
+ * The message names the file and, for text files, the line where the problem was found, so a bad file in a large
+ * batch can be located without rereading it.
+ */
+public class TOPTWFormatException extends IOException {
+    public static final int NO_LINE = -1;
+    private static final long serialVersionUID = 1L;
+
+    private final String file;
+    private final int line;
+
+    /**
+     * @param file Name of the file being read.
+     * @param line Line number, starting at 1.
+     * @param message Description of the problem.
+     */
+    public TOPTWFormatException(String file, int line, String message) {
+        super(file + ":" + line + ": " + message);
+        this.file = file;
+        this.line = line;
+    }
+
+    /**
+     * @brief Reports a problem in a file that is not organized in lines, such as a binary instance.
+     */
+    public TOPTWFormatException(String file, String message) {
+        super(file + ": " + message);
+        this.file = file;
+        this.line = NO_LINE;
+    }
+
+    public String getFile() {
+        return this.file;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+}
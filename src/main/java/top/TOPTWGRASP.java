@@ -1,9 +1,13 @@
 package top;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @class TOPTWGRASP
@@ -13,18 +17,67 @@ import java.util.Random;
  * using the Greedy Randomized Adaptive Search Procedure (GRASP). It includes routines for greedy randomized construction,
  * candidate selection (including fuzzy logic and alpha-cut strategies), and solution evaluation.
  * The class supports iterative optimization, restricted candidate list management, and integration with solution and problem data.
+ * Random numbers come from a SplittableRandom stream per iteration derived from the solver seed and the iteration
+ * index, so runs are reproducible, workers never share a generator and any iteration can be replayed on its own.
+ * Runs are measured by the TOPTWGRASPMetrics of the solver and, when a recording enables them, by Flight Recorder events.
  */
 public class TOPTWGRASP {
  public static double NO_EVALUATED = -1.0;
+    public static final int AUTOMATIC_NEIGHBOURHOOD = -1;
+    public static final int FULL_NEIGHBOURHOOD = 0;
+    public static final int SELECTION_RANDOM = 1;
+    public static final int SELECTION_FUZZY_BEST = 2;
+    public static final int SELECTION_FUZZY_ALPHA_CUT = 3;
+    public static final double DEFAULT_SELECTION_ALPHA = 0.8;
+    private static final double NO_INSERTION = Double.MAX_VALUE;
+    private static final int LARGE_INSTANCE_POIS = 1000;
+    private static final int DEFAULT_NEIGHBOURHOOD_SIZE = 25;
     
     private TOPTWSolution solution;
     private int solutionTime;
-    private Random random;
+    private SplittableRandom random;
+    private long seed;
+    private double[] departureTimes;
+    private double[] latestDepartures;
+    private int departureStride;
+    private int[] customers;
+    private int unroutedCustomers;
+    private int[] customerRoutes;
+    private double[] routeInsertionCosts;
+    private int[] routeInsertionPredecessors;
+    private int[] bestInsertionRoutes;
+    private TOPTWCandidateList candidates;
+    private TOPTWCandidateList rcl;
+    private double rclAlpha;
+    private int selectionStrategy;
+    private double selectionAlpha;
+    private double[] membership;
+    private TOPTW membershipProblem;
+    private boolean localSearchEnabled;
+    private TOPTWLocalSearch localSearch;
+    private TOPTWGRASPObserver observer;
+    private int neighbourhoodSize;
+    private TOPTWNeighbourhood neighbourhood;
+    private TOPTWGRASPMetrics metrics;
+    private TOPTWGRASPCounters counters;
 
     public TOPTWGRASP(TOPTWSolution sol){
+        this(sol, new SplittableRandom().nextLong());
+    }
+    
+    public TOPTWGRASP(TOPTWSolution sol, long seed){
         this.solution = sol;
         this.solutionTime = 0;
-        this.random = new Random();
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.rclAlpha = NO_EVALUATED;
+        this.selectionStrategy = SELECTION_FUZZY_ALPHA_CUT;
+        this.selectionAlpha = DEFAULT_SELECTION_ALPHA;
+        this.localSearchEnabled = false;
+        this.observer = TOPTWGRASPObserver.SILENT;
+        this.neighbourhoodSize = AUTOMATIC_NEIGHBOURHOOD;
+        this.metrics = new TOPTWGRASPMetrics();
+        this.counters = new TOPTWGRASPCounters();
     }
     
     /*procedure GRASP(Max Iterations,Seed)
@@ -49,33 +102,181 @@ public class TOPTWGRASP {
         return Solution;
     end Greedy Randomized Construction.*/
     
-    public void GRASP(int maxIterations, int maxSizeRCL) {
-        double averageFitness = 0.0;
-        double bestSolution = 0.0;
-        for(int i = 0; i < maxIterations; i++) {
-            
-            this.computeGreedySolution(maxSizeRCL);
+    public TOPTWGRASPResult GRASP(int maxIterations, int maxSizeRCL) {
+        return this.GRASP(new TOPTWGRASPConfig(maxIterations, maxSizeRCL));
+    }
+    
+    /**
+     * @brief Runs GRASP sequentially until one of the stopping criteria of the configuration holds.
+     * @param config Size of the restricted candidate list and stopping criteria.
+     * @return The best and average fitness and the best solution, found at the reported time.
+     */
+    public TOPTWGRASPResult GRASP(TOPTWGRASPConfig config) {
+        config.validate();
+        TOPTWGRASPRun run = new TOPTWGRASPRun(config, this.solution.getProblem(), this.metrics);
+        this.runIterations(config.getMaxSizeRCL(), run);
+        return this.finishRun(run);
+    }
+    
+    /**
+     * @brief Runs GRASP splitting the iterations across a fixed pool of worker threads.
+     * @param maxIterations Total number of GRASP iterations.
+     * @param maxSizeRCL Maximum size of the restricted candidate list.
+     * @param threads Number of worker threads.
+     * @return The best and average fitness over all iterations.
+     *
+     * Every iteration is seeded from the solver seed and its own index, so the result is the same as
+     * the sequential run with the same seed.
+     */
+    public TOPTWGRASPResult GRASP(int maxIterations, int maxSizeRCL, int threads) {
+        return this.GRASP(new TOPTWGRASPConfig(maxIterations, maxSizeRCL), threads);
+    }
+    
+    public TOPTWGRASPResult GRASP(TOPTWGRASPConfig config, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            return this.GRASP(config, executor, threads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    public TOPTWGRASPResult GRASP(int maxIterations, int maxSizeRCL, ExecutorService executor, int workers) {
+        return this.GRASP(new TOPTWGRASPConfig(maxIterations, maxSizeRCL), executor, workers);
+    }
+    
+    /**
+     * @brief Runs GRASP on a caller supplied executor.
+     * @param config Size of the restricted candidate list and stopping criteria.
+     * @param executor Executor the workers are submitted to.
+     * @param workers Number of workers claiming iterations from the run.
+     * @return The best and average fitness and the best solution, found at the reported time.
+     *
+     * Each worker owns its solution and random number generator; only the problem instance and the run state
+     * are shared. Workers claim iteration indexes one at a time, so the executed iterations are always a prefix
+     * of the sequential run. When the run is bounded only by its iteration count the result is the same as the
+     * sequential one; the other criteria depend on timing and on the order in which iterations complete.
+     */
+    public TOPTWGRASPResult GRASP(TOPTWGRASPConfig config, ExecutorService executor, int workers) {
+        config.validate();
+        final TOPTWGRASPRun run = new TOPTWGRASPRun(config, this.solution.getProblem(), this.metrics);
+        final int maxSizeRCL = config.getMaxSizeRCL();
+        this.initializeNeighbourhood();
+        this.initializeMembership();
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for(int w = 0; w < workers; w++) {
+            tasks.add(() -> {
+                TOPTWGRASP worker = this.createWorker();
+                worker.runIterations(maxSizeRCL, run);
+                return null;
+            });
+        }
+        try {
+            for(Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("GRASP interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("GRASP worker failed", e.getCause());
+        }
+        return this.finishRun(run);
+    }
+    
+    private TOPTWGRASPResult finishRun(TOPTWGRASPRun run) {
+        TOPTWGRASPResult result = run.finish();
+        this.solutionTime = (int)result.getTimeToBestMillis();
+        this.observer.runFinished(result);
+        return result;
+    }
+    
+    // Solver con su propia solución y generador aleatorio y la misma configuración que éste
+    private TOPTWGRASP createWorker() {
+        TOPTWGRASP worker = new TOPTWGRASP(new TOPTWSolution(this.solution.getProblem()), this.seed);
+        worker.rclAlpha = this.rclAlpha;
+        worker.selectionStrategy = this.selectionStrategy;
+        worker.selectionAlpha = this.selectionAlpha;
+        worker.membership = this.membership;
+        worker.membershipProblem = this.membershipProblem;
+        worker.localSearchEnabled = this.localSearchEnabled;
+        worker.observer = this.observer;
+        worker.neighbourhoodSize = this.neighbourhoodSize;
+        worker.neighbourhood = this.neighbourhood;
+        worker.metrics = this.metrics;
+        return worker;
+    }
+    
+    private void runIterations(int maxSizeRCL, TOPTWGRASPRun run) {
+        this.counters.clear();
+        for(int i = run.nextIteration(); i != TOPTWGRASPRun.NO_ITERATION; i = run.nextIteration()) {
+            TOPTWGRASPIterationEvent event = new TOPTWGRASPIterationEvent();
+            event.begin();
+            double fitness = this.runIteration(i, maxSizeRCL);
             
             // IMPRIMIR SOLUCION
-            double fitness = this.solution.evaluateFitness();
-            System.out.println(this.solution.getInfoSolution());
+            this.observer.iterationCompleted(i, this.solution, fitness);
             //System.out.println("Press Any Key To Continue...");
             //new java.util.Scanner(System.in).nextLine();
-            averageFitness += fitness;
-            if(bestSolution < fitness) {
-                bestSolution = fitness;
+            boolean improved = run.record(i, fitness, this.solution);
+            if(improved) {
+                this.observer.bestImproved(i, this.solution, fitness);
             }
             //double fitness = this.solution.printSolution();
-                   
-            /******
-            * 
-            * BÚSQUEDA LOCAL
-            * 
-            */
+            
+            // MÉTRICAS: el evento toma los contadores de la iteración antes de volcarlos
+            if(event.shouldCommit()) {
+                event.iteration = i;
+                event.fitness = fitness;
+                event.evaluations = this.counters.evaluations;
+                event.rejectedDueTime = this.counters.rejectedDueTime;
+                event.rejectedMaxTime = this.counters.rejectedMaxTime;
+                event.rejectedDownstream = this.counters.rejectedDownstream;
+                event.selections = this.counters.selections;
+                event.improved = improved;
+                event.commit();
+            }
+            this.metrics.flush(this.counters);
         }
-        averageFitness = averageFitness/maxIterations;
-        System.out.println(" --> MEDIA: "+averageFitness);
-        System.out.println(" --> MEJOR SOLUCION: "+bestSolution);
+    }
+    
+    private double runIteration(int iteration, int maxSizeRCL) {
+        this.random = new SplittableRandom(iterationSeed(this.seed, iteration));
+        this.computeGreedySolution(maxSizeRCL);
+        
+        // BÚSQUEDA LOCAL
+        if(this.localSearchEnabled) {
+            this.applyLocalSearch();
+        }
+        return this.solution.evaluateFitness();
+    }
+    
+    /**
+     * @brief Builds again, on its own, the solution of one iteration of a run made with the current seed.
+     * @param iteration Index of the iteration, such as TOPTWGRASPResult.getBestIteration().
+     * @param maxSizeRCL Maximum size of the restricted candidate list of the run.
+     * @return The fitness of the solution, which is left in getSolution().
+     *
+     * The random numbers of an iteration depend only on the seed and the index, so the solution is the one the run
+     * built, sequential or parallel, as long as the other settings of the solver have not changed.
+     */
+    public double replayIteration(int iteration, int maxSizeRCL) {
+        return this.runIteration(iteration, maxSizeRCL);
+    }
+    
+    public void applyLocalSearch() {
+        if(this.localSearch == null || this.localSearch.getProblem() != this.solution.getProblem()) {
+            this.localSearch = new TOPTWLocalSearch(this.solution.getProblem());
+        }
+        this.localSearch.improve(this.solution);
+    }
+    
+    // SplitMix64 finalizer: neighbouring iteration indexes get unrelated streams
+    private static long iterationSeed(long seed, int iteration) {
+        long z = seed + (iteration + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
     
     public int aleatorySelectionRCL(int maxTRCL) {
@@ -84,172 +285,276 @@ public class TOPTWGRASP {
        return random.nextInt(high-low) + low;
     }
     
-    public int fuzzySelectionBestFDRCL(ArrayList< double[] > rcl) {
-        double[] membershipFunction = new double[rcl.size()];
+    // Pertenencia de cada POI al conjunto difuso de los buenos candidatos: 1 - score / score máximo, una vez por instancia
+    private void initializeMembership() {
+        TOPTW problem = this.solution.getProblem();
+        if(this.membershipProblem == problem) {
+            return;
+        }
         double maxSc = this.getMaxScore();
-        for(int j=0; j < rcl.size(); j++) {
-            membershipFunction[j] = 1 - ((rcl.get(j)[4])/maxSc);
+        double[] values = new double[problem.getPOIs() + 1];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = 1 - (problem.getScore(i)/maxSc);
         }
+        this.membership = values;
+        this.membershipProblem = problem;
+    }
+    
+    public int fuzzySelectionBestFDRCL(TOPTWCandidateList rcl) {
+        initializeMembership();
         double minMemFunc = Double.MAX_VALUE;
         int posSelected = -1;
         for(int i = 0; i < rcl.size(); i++) {
-            if(minMemFunc > membershipFunction[i]) {
-                minMemFunc = membershipFunction[i];
+            double membershipValue = this.membership[rcl.getCustomer(i)];
+            if(minMemFunc > membershipValue) {
+                minMemFunc = membershipValue;
                 posSelected = i;
             }
         }
         return posSelected;
     }
     
-    public int fuzzySelectionAlphaCutRCL(ArrayList< double[] > rcl, double alpha) {
-        ArrayList< double[] > rclAlphaCut = new ArrayList< double[] >();
-        ArrayList< Integer > rclPos = new ArrayList< Integer >();
-        double[] membershipFunction = new double[rcl.size()];
-        double maxSc = this.getMaxScore();
-        for(int j=0; j < rcl.size(); j++) {
-            membershipFunction[j] = 1 - ((rcl.get(j)[4])/maxSc);
-            if(membershipFunction[j] <= alpha) {
-                rclAlphaCut.add(rcl.get(j));
-                rclPos.add(j);
+    // Elige al azar entre los candidatos del corte alfa en dos pasadas: cuenta y luego localiza el elegido
+    public int fuzzySelectionAlphaCutRCL(TOPTWCandidateList rcl, double alpha) {
+        initializeMembership();
+        int inCut = 0;
+        for(int j = 0; j < rcl.size(); j++) {
+            if(this.membership[rcl.getCustomer(j)] <= alpha) {
+                inCut++;
             }
         }
-        int posSelected = -1;
-        if(rclAlphaCut.size() > 0) {
-            posSelected = rclPos.get(aleatorySelectionRCL(rclAlphaCut.size()));
-        } else {
-            posSelected = aleatorySelectionRCL(rcl.size());
+        if(inCut == 0) {
+            return aleatorySelectionRCL(rcl.size());
         }
-        return posSelected;
+        int selected = aleatorySelectionRCL(inCut);
+        for(int j = 0; j < rcl.size(); j++) {
+            if(this.membership[rcl.getCustomer(j)] <= alpha && selected-- == 0) {
+                return j;
+            }
+        }
+        return -1;
     }
 
     public void computeGreedySolution(int maxSizeRCL) {
     // inicialización
     this.solution.initSolution();
+    this.counters.constructions++;
     
-    ArrayList<ArrayList<Double>> departureTimesPerClient = initializeDepartureTimes();
-    ArrayList<Integer> customers = initializeCustomers();
+    initializeNeighbourhood();
+    initializeDepartureTimes();
+    initializeCustomers();
     
-    ArrayList<double[]> candidates = evaluateAndSortCandidates(customers, departureTimesPerClient);
+    initializeInsertionCache();
+    refreshRouteInsertions(0);
+    buildRestrictedCandidateList(maxSizeRCL);
     
     boolean existCandidates = true;
     
-    while(!customers.isEmpty() && existCandidates) {
-        if(!candidates.isEmpty()) {
-            processAvailableCandidates(maxSizeRCL, candidates, customers, departureTimesPerClient);
+    while(this.unroutedCustomers > 0 && existCandidates) {
+        int changedRoute;
+        if(!this.rcl.isEmpty()) {
+            changedRoute = processAvailableCandidates();
         } else {
-            existCandidates = tryCreateNewRoute(departureTimesPerClient);
+            existCandidates = tryCreateNewRoute();
+            changedRoute = this.solution.getCreatedRoutes() - 1;
         }
         
-        candidates = evaluateAndSortCandidates(customers, departureTimesPerClient);
+        // Sólo la ruta modificada cambia los costes de inserción
+        if(existCandidates) {
+            refreshRouteInsertions(changedRoute);
+            buildRestrictedCandidateList(maxSizeRCL);
+        }
     }
 }
 
-private ArrayList<ArrayList<Double>> initializeDepartureTimes() {
-    ArrayList<ArrayList<Double>> departureTimesPerClient = new ArrayList<>();
-    ArrayList<Double> init = new ArrayList<>();
-    
-    int size = this.solution.getProblem().getPOIs() + this.solution.getProblem().getVehicles();
-    for(int z = 0; z < size; z++) {
-        init.add(0.0);
+// Listas de vecinos compatibles: se construyen una vez por instancia y tamaño, y se comparten con los workers
+private void initializeNeighbourhood() {
+    TOPTW problem = this.solution.getProblem();
+    int size = this.neighbourhoodSize;
+    if(size == AUTOMATIC_NEIGHBOURHOOD) {
+        size = problem.getPOIs() >= LARGE_INSTANCE_POIS ? DEFAULT_NEIGHBOURHOOD_SIZE : FULL_NEIGHBOURHOOD;
+    }
+    if(size == FULL_NEIGHBOURHOOD) {
+        this.neighbourhood = null;
+    } else if(this.neighbourhood == null || this.neighbourhood.getProblem() != problem
+            || this.neighbourhood.getSize() != size) {
+        this.neighbourhood = new TOPTWNeighbourhood(problem, size);
     }
-    
-    departureTimesPerClient.add(0, init);
-    return departureTimesPerClient;
 }
 
-private ArrayList<Integer> initializeCustomers() {
-    ArrayList<Integer> customers = new ArrayList<>();
-    for(int j = 1; j <= this.solution.getProblem().getPOIs(); j++) {
-        customers.add(j);
+private void initializeInsertionCache() {
+    int customers = this.solution.getProblem().getPOIs() + 1;
+    int vehicles = this.solution.getProblem().getVehicles();
+    if(this.bestInsertionRoutes == null || this.bestInsertionRoutes.length != customers
+            || this.routeInsertionCosts.length != customers * vehicles) {
+        this.routeInsertionCosts = new double[customers * vehicles];
+        this.routeInsertionPredecessors = new int[customers * vehicles];
+        this.bestInsertionRoutes = new int[customers];
+        this.candidates = new TOPTWCandidateList(customers - 1);
+        this.rcl = new TOPTWCandidateList(customers - 1);
     }
-    return customers;
+    Arrays.fill(this.bestInsertionRoutes, TOPTWSolution.NO_INITIALIZED);
 }
 
-private ArrayList<double[]> evaluateAndSortCandidates(ArrayList<Integer> customers, 
-                                                       ArrayList<ArrayList<Double>> departureTimesPerClient) {
-    ArrayList<double[]> candidates = this.comprehensiveEvaluation(customers, departureTimesPerClient);
-    
-    Collections.sort(candidates, new Comparator<double[]>() {
-        public int compare(double[] a, double[] b) {
-            return Double.compare(a[a.length-2], b[b.length-2]);
+// Reevalúa los clientes en la ruta modificada y actualiza su mejor inserción sólo si ha quedado obsoleta
+private void refreshRouteInsertions(int routeIndex) {
+    int vehicles = this.solution.getProblem().getVehicles();
+    for(int c = 0; c < this.unroutedCustomers; c++) {
+        int candidate = this.customers[c];
+        evaluateCandidateInRoute(candidate, routeIndex);
+        
+        int bestRoute = this.bestInsertionRoutes[candidate];
+        if(bestRoute == routeIndex) {
+            this.bestInsertionRoutes[candidate] = findCachedBestRoute(candidate);
+        } else {
+            double cost = this.routeInsertionCosts[candidate * vehicles + routeIndex];
+            if(cost != NO_INSERTION && (bestRoute == TOPTWSolution.NO_INITIALIZED
+                    || cost < this.routeInsertionCosts[candidate * vehicles + bestRoute]
+                    || (cost == this.routeInsertionCosts[candidate * vehicles + bestRoute] && routeIndex < bestRoute))) {
+                this.bestInsertionRoutes[candidate] = routeIndex;
+            }
         }
-    });
-    
-    return candidates;
+    }
 }
 
-private void processAvailableCandidates(int maxSizeRCL, ArrayList<double[]> candidates, 
-                                        ArrayList<Integer> customers, 
-                                        ArrayList<ArrayList<Double>> departureTimesPerClient) {
-    ArrayList<double[]> rcl = buildRestrictedCandidateList(maxSizeRCL, candidates);
-    
-    int posSelected = selectCandidateFromRCL(rcl);
-    double[] candidateSelected = rcl.get(posSelected);
-    
-    removeSelectedCustomer(customers, candidateSelected);
-    updateSolution(candidateSelected, departureTimesPerClient);
+private int findCachedBestRoute(int candidate) {
+    int vehicles = this.solution.getProblem().getVehicles();
+    int bestRoute = TOPTWSolution.NO_INITIALIZED;
+    double bestCost = NO_INSERTION;
+    for(int k = 0; k < this.solution.getCreatedRoutes(); k++) {
+        double cost = this.routeInsertionCosts[candidate * vehicles + k];
+        if(cost < bestCost) {
+            bestCost = cost;
+            bestRoute = k;
+        }
+    }
+    return bestRoute;
 }
 
-private ArrayList<double[]> buildRestrictedCandidateList(int maxSizeRCL, ArrayList<double[]> candidates) {
-    ArrayList<double[]> rcl = new ArrayList<>();
-    int maxTRCL = Math.min(maxSizeRCL, candidates.size());
-    
-    for(int j = 0; j < maxTRCL; j++) {
-        rcl.add(candidates.get(j));
+// Tiempos de salida y de salida más tardía en un único buffer rutas x nodos, reutilizado entre iteraciones
+private void initializeDepartureTimes() {
+    int size = this.solution.getProblem().getPOIs() + this.solution.getProblem().getVehicles();
+    int capacity = size * this.solution.getProblem().getVehicles();
+    if(this.departureTimes == null || this.departureTimes.length != capacity) {
+        this.departureTimes = new double[capacity];
+        this.latestDepartures = new double[capacity];
+        this.departureStride = size;
     }
-    
-    return rcl;
+    resetRouteDepartureTimes(0);
 }
 
-private int selectCandidateFromRCL(ArrayList<double[]> rcl) {
-    int selection = 3;
-    double alpha = 0.8;
+private void resetRouteDepartureTimes(int routeIndex) {
+    int from = routeIndex * this.departureStride;
+    Arrays.fill(this.departureTimes, from, from + this.departureStride, 0.0);
+    Arrays.fill(this.latestDepartures, from, from + this.departureStride, 0.0);
+}
+
+private void initializeCustomers() {
+    int pois = this.solution.getProblem().getPOIs();
+    if(this.customers == null || this.customers.length != pois) {
+        this.customers = new int[pois];
+        this.customerRoutes = new int[pois + 1];
+    }
+    Arrays.fill(this.customerRoutes, TOPTWSolution.NO_INITIALIZED);
+    for(int j = 1; j <= pois; j++) {
+        this.customers[j - 1] = j;
+    }
+    this.unroutedCustomers = pois;
+}
+
+private int processAvailableCandidates() {
+    this.counters.recordSelection(this.rcl.size());
+    int posSelected = selectCandidateFromRCL(this.rcl);
+    int customer = this.rcl.getCustomer(posSelected);
+    int route = this.rcl.getRoute(posSelected);
+    
+    removeSelectedCustomer(customer);
+    updateSolution(customer, route, this.rcl.getPredecessor(posSelected));
+    return route;
+}
+
+// RCL por cardinalidad (los maxSizeRCL mejores) o por valor (coste <= mínimo + alpha * (máximo - mínimo)), sin ordenar todos los candidatos
+private void buildRestrictedCandidateList(int maxSizeRCL) {
+    int vehicles = this.solution.getProblem().getVehicles();
+    this.rcl.clear();
+    
+    double threshold = Double.POSITIVE_INFINITY;
+    if(this.rclAlpha != NO_EVALUATED) {
+        double minCost = Double.POSITIVE_INFINITY, maxCost = Double.NEGATIVE_INFINITY;
+        for(int c = 0; c < this.unroutedCustomers; c++) {
+            int candidate = this.customers[c];
+            int route = this.bestInsertionRoutes[candidate];
+            if(route != TOPTWSolution.NO_INITIALIZED) {
+                double cost = this.routeInsertionCosts[candidate * vehicles + route];
+                minCost = Math.min(minCost, cost);
+                maxCost = Math.max(maxCost, cost);
+            }
+        }
+        threshold = minCost + this.rclAlpha * (maxCost - minCost);
+    }
     
-    switch (selection) {
-        case 1:
+    for(int c = 0; c < this.unroutedCustomers; c++) {
+        int candidate = this.customers[c];
+        int route = this.bestInsertionRoutes[candidate];
+        if(route == TOPTWSolution.NO_INITIALIZED) {
+            continue;
+        }
+        int slot = candidate * vehicles + route;
+        double cost = this.routeInsertionCosts[slot];
+        double score = this.solution.getProblem().getScore(candidate);
+        if(this.rclAlpha == NO_EVALUATED) {
+            this.rcl.offer(candidate, route, this.routeInsertionPredecessors[slot], cost, score, maxSizeRCL);
+        } else if(cost <= threshold) {
+            this.rcl.add(candidate, route, this.routeInsertionPredecessors[slot], cost, score);
+        }
+    }
+}
+
+private int selectCandidateFromRCL(TOPTWCandidateList rcl) {
+    switch (this.selectionStrategy) {
+        case SELECTION_RANDOM:
             return this.aleatorySelectionRCL(rcl.size());
-        case 2:
+        case SELECTION_FUZZY_BEST:
             return this.fuzzySelectionBestFDRCL(rcl);
-        case 3:
-            return this.fuzzySelectionAlphaCutRCL(rcl, alpha);
+        case SELECTION_FUZZY_ALPHA_CUT:
+            return this.fuzzySelectionAlphaCutRCL(rcl, this.selectionAlpha);
         default:
             return this.aleatorySelectionRCL(rcl.size());
     }
 }
 
-private void removeSelectedCustomer(ArrayList<Integer> customers, double[] candidateSelected) {
-    customers.removeIf(customer -> customer == candidateSelected[0]);
+private void removeSelectedCustomer(int customer) {
+    int position = 0;
+    while(this.customers[position] != customer) {
+        position++;
+    }
+    System.arraycopy(this.customers, position + 1, this.customers, position, this.unroutedCustomers - position - 1);
+    this.unroutedCustomers--;
 }
 
-private boolean tryCreateNewRoute(ArrayList<ArrayList<Double>> departureTimesPerClient) {
+private boolean tryCreateNewRoute() {
     if(this.solution.getCreatedRoutes() < this.solution.getProblem().getVehicles()) {
         this.solution.addRoute();
-        
-        ArrayList<Double> initNew = new ArrayList<>();
-        int size = this.solution.getProblem().getPOIs() + this.solution.getProblem().getVehicles();
-        for(int z = 0; z < size; z++) {
-            initNew.add(0.0);
-        }
-        
-        departureTimesPerClient.add(initNew);
+        resetRouteDepartureTimes(this.solution.getCreatedRoutes() - 1);
         return true;
     }
     
     return false;
 }
     
-    public void updateSolution(double[] candidateSelected, ArrayList< ArrayList< Double > > departureTimes) {
-        // Inserción del cliente en la ruta  return: cliente, ruta, predecesor, coste
-        this.solution.setPredecessor((int)candidateSelected[0], (int)candidateSelected[2]);
-        this.solution.setSuccessor((int)candidateSelected[0], this.solution.getSuccessor((int)candidateSelected[2]));
-        this.solution.setSuccessor((int)candidateSelected[2], (int)candidateSelected[0]);
-        this.solution.setPredecessor(this.solution.getSuccessor((int)candidateSelected[0]), (int)candidateSelected[0]);
+    public void updateSolution(int customer, int routeIndex, int predecessor) {
+        // Inserción del cliente en la ruta
+        this.solution.setPredecessor(customer, predecessor);
+        this.solution.setSuccessor(customer, this.solution.getSuccessor(predecessor));
+        this.solution.setSuccessor(predecessor, customer);
+        this.solution.setPredecessor(this.solution.getSuccessor(customer), customer);
+        this.customerRoutes[customer] = routeIndex;
         
         // Actualización de las estructuras de datos y conteo a partir de la posición a insertar
-        double costInsertionPre = departureTimes.get((int)candidateSelected[1]).get((int)candidateSelected[2]);
-        ArrayList<Double> route = departureTimes.get((int)candidateSelected[1]);
-        int pre=(int)candidateSelected[2], suc=-1;
-        int depot = this.solution.getIndexRoute((int)candidateSelected[1]);
+        int route = routeIndex * this.departureStride;
+        double costInsertionPre = this.departureTimes[route + predecessor];
+        int pre=predecessor, suc=-1;
+        int depot = this.solution.getIndexRoute(routeIndex);
         do {
             suc = this.solution.getSuccessor(pre);
             costInsertionPre += this.solution.getDistance(pre, suc);
@@ -260,126 +565,160 @@ private boolean tryCreateNewRoute(ArrayList<ArrayList<Double>> departureTimesPer
             costInsertionPre += this.solution.getProblem().getServiceTime(suc);
              
             if(!this.solution.isDepot(suc))
-                route.set(suc, costInsertionPre);
+                this.departureTimes[route + suc] = costInsertionPre;
             pre = suc;
         } while((suc != depot));
         
-        // Actualiza tiempos
-        departureTimes.set((int)candidateSelected[1], route);
+        // Holgura hacia delante: salida más tardía de cada cliente que mantiene factible el resto de la ruta
+        double latestSuc = Double.POSITIVE_INFINITY;
+        suc = depot;
+        do {
+            pre = this.solution.getPredecessor(suc);
+            latestSuc = this.calculateLatestDeparture(pre, suc, latestSuc);
+            if(!this.solution.isDepot(pre))
+                this.latestDepartures[route + pre] = latestSuc;
+            suc = pre;
+        } while((suc != depot));
+    }
+    
+    // Salida más tardía desde pre que mantiene a suc y al resto de la ruta dentro de sus ventanas
+    private double calculateLatestDeparture(int pre, int suc, double latestDepartureSuc) {
+        double latestStart = Math.min(this.solution.getProblem().getMaxTimePerRoute(), latestDepartureSuc)
+                - this.solution.getProblem().getServiceTime(suc);
+        if(this.solution.getProblem().getReadyTime(suc) > latestStart) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double latestArrival = Math.min(Math.nextDown(this.solution.getProblem().getDueTime(suc)), latestStart);
+        return latestArrival - this.solution.getDistance(pre, suc);
     }
 
     //return: cliente, ruta, predecesor, coste tiempo, score
-    public ArrayList<double[]> comprehensiveEvaluation(ArrayList<Integer> customers, ArrayList<ArrayList<Double>> departureTimes) {
-    ArrayList<double[]> candidatesList = new ArrayList<>();
-    
-    for(int c = 0; c < customers.size(); c++) {
-        int candidate = customers.get(c);
-        double[] bestInsertion = findBestInsertionForCandidate(candidate, departureTimes);
+    public TOPTWCandidateList comprehensiveEvaluation() {
+    int vehicles = this.solution.getProblem().getVehicles();
+    this.candidates.clear();
+    
+    for(int c = 0; c < this.unroutedCustomers; c++) {
+        int candidate = this.customers[c];
+        int bestRoute = findBestInsertionForCandidate(candidate);
+        this.bestInsertionRoutes[candidate] = bestRoute;
         
-        if(isValidCandidate(bestInsertion)) {
-            candidatesList.add(bestInsertion.clone());
+        if(bestRoute != TOPTWSolution.NO_INITIALIZED) {
+            int slot = candidate * vehicles + bestRoute;
+            this.candidates.add(candidate, bestRoute, this.routeInsertionPredecessors[slot],
+                    this.routeInsertionCosts[slot], this.solution.getProblem().getScore(candidate));
         }
     }
     
-    return candidatesList;
+    return this.candidates;
 }
 
-private double[] findBestInsertionForCandidate(int candidate, ArrayList<ArrayList<Double>> departureTimes) {
-    double[] bestInsertion = initializeCandidateInfo();
-    
+private int findBestInsertionForCandidate(int candidate) {
     for(int k = 0; k < this.solution.getCreatedRoutes(); k++) {
-        double[] routeInsertion = evaluateCandidateInRoute(candidate, k, departureTimes);
-        
-        if(isValidCandidate(routeInsertion) && routeInsertion[3] < bestInsertion[3]) {
-            bestInsertion = routeInsertion;
-        }
+        evaluateCandidateInRoute(candidate, k);
     }
     
-    return bestInsertion;
+    return findCachedBestRoute(candidate);
 }
 
-private double[] evaluateCandidateInRoute(int candidate, int routeIndex, ArrayList<ArrayList<Double>> departureTimes) {
-    double[] bestInsertion = initializeCandidateInfo();
+// Guarda en la caché la mejor inserción del candidato en la ruta: coste y predecesor
+private void evaluateCandidateInRoute(int candidate, int routeIndex) {
+    if(this.neighbourhood != null) {
+        evaluateCandidateNearNeighbours(candidate, routeIndex);
+        return;
+    }
+    double bestCost = NO_INSERTION;
+    int bestPredecessor = TOPTWSolution.NO_INITIALIZED;
     int depot = this.solution.getIndexRoute(routeIndex);
     int pre = depot;
     
     do {
         int suc = this.solution.getSuccessor(pre);
-        double[] insertionAttempt = tryInsertionBetween(candidate, pre, suc, routeIndex, depot, departureTimes);
+        double cost = tryInsertionBetween(candidate, pre, suc, routeIndex, depot);
         
-        if(isValidCandidate(insertionAttempt) && insertionAttempt[3] < bestInsertion[3]) {
-            bestInsertion = insertionAttempt;
+        if(cost < bestCost) {
+            bestCost = cost;
+            bestPredecessor = pre;
         }
         
         pre = suc;
     } while(pre != depot);
     
-    return bestInsertion;
+    int slot = candidate * this.solution.getProblem().getVehicles() + routeIndex;
+    this.routeInsertionCosts[slot] = bestCost;
+    this.routeInsertionPredecessors[slot] = bestPredecessor;
 }
 
-private double[] tryInsertionBetween(int candidate, int pre, int suc, int routeIndex, int depot, 
-                                      ArrayList<ArrayList<Double>> departureTimes) {
-    double[] insertionInfo = initializeCandidateInfo();
+// Como evaluateCandidateInRoute, pero sólo junto al depósito y junto a los vecinos compatibles que están en la ruta
+private void evaluateCandidateNearNeighbours(int candidate, int routeIndex) {
+    int depot = this.solution.getIndexRoute(routeIndex);
+    int last = this.solution.getPredecessor(depot);
+    double bestCost = tryInsertionBetween(candidate, depot, this.solution.getSuccessor(depot), routeIndex, depot);
+    int bestPredecessor = bestCost != NO_INSERTION ? depot : TOPTWSolution.NO_INITIALIZED;
+    double cost = tryInsertionBetween(candidate, last, depot, routeIndex, depot);
+    if(cost < bestCost) {
+        bestCost = cost;
+        bestPredecessor = last;
+    }
     
-    double timesUntilPre = departureTimes.get(routeIndex).get(pre) + this.solution.getDistance(pre, candidate);
+    for(int n = this.neighbourhood.getStart(candidate); n < this.neighbourhood.getEnd(candidate); n++) {
+        int neighbour = this.neighbourhood.getNeighbour(n);
+        if(this.customerRoutes[neighbour] != routeIndex) {
+            continue;
+        }
+        int pre = this.solution.getPredecessor(neighbour);
+        cost = tryInsertionBetween(candidate, pre, neighbour, routeIndex, depot);
+        if(cost < bestCost) {
+            bestCost = cost;
+            bestPredecessor = pre;
+        }
+        cost = tryInsertionBetween(candidate, neighbour, this.solution.getSuccessor(neighbour), routeIndex, depot);
+        if(cost < bestCost) {
+            bestCost = cost;
+            bestPredecessor = neighbour;
+        }
+    }
+    
+    int slot = candidate * this.solution.getProblem().getVehicles() + routeIndex;
+    this.routeInsertionCosts[slot] = bestCost;
+    this.routeInsertionPredecessors[slot] = bestPredecessor;
+}
+
+private double tryInsertionBetween(int candidate, int pre, int suc, int routeIndex, int depot) {
+    this.counters.evaluations++;
+    double timesUntilPre = this.departureTimes[routeIndex * this.departureStride + pre] + this.solution.getDistance(pre, candidate);
     
     if(!isWithinDueTime(timesUntilPre, candidate)) {
-        return insertionInfo;
+        this.counters.rejectedDueTime++;
+        return NO_INSERTION;
     }
     
     double costCand = calculateArrivalCost(timesUntilPre, candidate);
     
     if(costCand > this.solution.getProblem().getMaxTimePerRoute()) {
-        return insertionInfo;
+        this.counters.rejectedMaxTime++;
+        return NO_INSERTION;
     }
     
     double timesUntilSuc = costCand + this.solution.getDistance(candidate, suc);
     
     if(!isWithinDueTime(timesUntilSuc, suc)) {
-        return insertionInfo;
+        this.counters.rejectedDownstream++;
+        return NO_INSERTION;
     }
     
     double costSuc = calculateArrivalCost(timesUntilSuc, suc);
     
     if(costSuc > this.solution.getProblem().getMaxTimePerRoute()) {
-        return insertionInfo;
+        this.counters.rejectedMaxTime++;
+        return NO_INSERTION;
     }
     
-    if(suc != depot && !validateRemainingRoute(suc, costSuc, depot)) {
-        return insertionInfo;
+    if(suc != depot && costSuc > this.latestDepartures[routeIndex * this.departureStride + suc]) {
+        this.counters.rejectedDownstream++;
+        return NO_INSERTION;
     }
     
-    insertionInfo[0] = candidate;
-    insertionInfo[1] = routeIndex;
-    insertionInfo[2] = pre;
-    insertionInfo[3] = costSuc;
-    insertionInfo[4] = this.solution.getProblem().getScore(candidate);
-    
-    return insertionInfo;
-}
-
-private boolean validateRemainingRoute(int startNode, double startCost, int depot) {
-    int pre = startNode;
-    double currentCost = startCost;
-    
-    do {
-        int suc = this.solution.getSuccessor(pre);
-        double timesUntilNext = currentCost + this.solution.getDistance(pre, suc);
-        
-        if(!isWithinDueTime(timesUntilNext, suc)) {
-            return false;
-        }
-        
-        currentCost = calculateArrivalCost(timesUntilNext, suc);
-        
-        if(currentCost > this.solution.getProblem().getMaxTimePerRoute()) {
-            return false;
-        }
-        
-        pre = suc;
-    } while(pre != depot);
-    
-    return true;
+    return costSuc;
 }
 
 private double calculateArrivalCost(double arrivalTime, int node) {
@@ -390,24 +729,6 @@ private double calculateArrivalCost(double arrivalTime, int node) {
 private boolean isWithinDueTime(double arrivalTime, int node) {
     return arrivalTime < this.solution.getProblem().getDueTime(node);
 }
-
-private double[] initializeCandidateInfo() {
-    double[] info = new double[5];
-    info[0] = -1;  // candidate
-    info[1] = -1;  // route
-    info[2] = -1;  // predecessor
-    info[3] = Double.MAX_VALUE;  // cost
-    info[4] = -1;  // score
-    return info;
-}
-
-private boolean isValidCandidate(double[] candidateInfo) {
-    return candidateInfo[0] != -1 && 
-           candidateInfo[1] != -1 && 
-           candidateInfo[2] != -1 && 
-           candidateInfo[3] != Double.MAX_VALUE && 
-           candidateInfo[4] != -1;
-}
     
     public TOPTWSolution getSolution() {
         return solution;
@@ -424,10 +745,112 @@ private boolean isValidCandidate(double[] candidateInfo) {
     public void setSolutionTime(int solutionTime) {
         this.solutionTime = solutionTime;
     }
+
+    public boolean isLocalSearchEnabled() {
+        return this.localSearchEnabled;
+    }
+
+    /**
+     * @brief Enables the local search phase after every construction; it is disabled by default.
+     */
+    public void setLocalSearchEnabled(boolean localSearchEnabled) {
+        this.localSearchEnabled = localSearchEnabled;
+    }
+
+    /**
+     * @brief Measurements of the runs of this solver and its workers, accumulated until reset.
+     */
+    public TOPTWGRASPMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public TOPTWGRASPObserver getObserver() {
+        return this.observer;
+    }
+
+    public void setObserver(TOPTWGRASPObserver observer) {
+        this.observer = observer;
+    }
+
+    public int getNeighbourhoodSize() {
+        return this.neighbourhoodSize;
+    }
+
+    /**
+     * @brief Restricts the insertion positions evaluated during construction.
+     * @param neighbourhoodSize Number of nearest time-window-compatible POIs next to which a customer may be
+     * inserted, besides the positions next to the depot. FULL_NEIGHBOURHOOD evaluates every position and
+     * AUTOMATIC_NEIGHBOURHOOD, the default, restricts the evaluation only on instances of 1000 POIs or more.
+     */
+    public void setNeighbourhoodSize(int neighbourhoodSize) {
+        this.neighbourhoodSize = neighbourhoodSize;
+    }
+
+    public double getRCLAlpha() {
+        return this.rclAlpha;
+    }
+
+    /**
+     * @brief Selects how the restricted candidate list is built.
+     * @param rclAlpha Value in [0, 1] for a value-based RCL, or NO_EVALUATED for the maxSizeRCL best candidates.
+     *
+     * A value-based RCL keeps every candidate whose cost is at most min + alpha * (max - min); alpha 0 is pure
+     * greedy and alpha 1 pure random.
+     */
+    public void setRCLAlpha(double rclAlpha) {
+        if(rclAlpha != NO_EVALUATED && !(rclAlpha >= 0.0 && rclAlpha <= 1.0)) {
+            throw new IllegalArgumentException("Invalid RCL alpha: " + rclAlpha);
+        }
+        this.rclAlpha = rclAlpha;
+    }
+
+    public int getSelectionStrategy() {
+        return this.selectionStrategy;
+    }
+
+    /**
+     * @brief Selects how a candidate is chosen from the restricted candidate list.
+     * @param selectionStrategy SELECTION_RANDOM for a uniform choice, SELECTION_FUZZY_BEST for the candidate with the
+     * highest score or SELECTION_FUZZY_ALPHA_CUT, the default, for a uniform choice among the candidates whose
+     * membership 1 - score / maximum score is at most the selection alpha.
+     */
+    public void setSelectionStrategy(int selectionStrategy) {
+        if(selectionStrategy < SELECTION_RANDOM || selectionStrategy > SELECTION_FUZZY_ALPHA_CUT) {
+            throw new IllegalArgumentException("Invalid selection strategy: " + selectionStrategy);
+        }
+        this.selectionStrategy = selectionStrategy;
+    }
+
+    public double getSelectionAlpha() {
+        return this.selectionAlpha;
+    }
+
+    /**
+     * @brief Sets the membership threshold of SELECTION_FUZZY_ALPHA_CUT, DEFAULT_SELECTION_ALPHA unless changed.
+     * @param selectionAlpha Value in [0, 1]; lower values keep only the candidates with the highest scores.
+     */
+    public void setSelectionAlpha(double selectionAlpha) {
+        if(!(selectionAlpha >= 0.0 && selectionAlpha <= 1.0)) {
+            throw new IllegalArgumentException("Invalid selection alpha: " + selectionAlpha);
+        }
+        this.selectionAlpha = selectionAlpha;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * @brief Sets the seed of the following runs; iteration i of any run with this seed gets the same stream.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
     
     public double getMaxScore() {
         double maxSc = -1.0;
-        for(int i = 0; i < this.solution.getProblem().getScore().length; i++) {
+        for(int i = 0; i < this.solution.getProblem().getPOIs()+1; i++) {
             if(this.solution.getProblem().getScore(i) > maxSc)
                 maxSc = this.solution.getProblem().getScore(i);
         }
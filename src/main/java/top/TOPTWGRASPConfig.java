@@ -0,0 +1,86 @@
+package top;
+
+/**
+ * @class TOPTWGRASPConfig
+ * @brief Run configuration and stopping criteria of a GRASP execution.
+ *
+ * This class groups the parameters of one GRASP run: the maximum size of the restricted candidate list and the
+ * stopping criteria. A run stops as soon as any enabled criterion holds: the iteration count is reached, the
+ * wall-clock budget is spent, the best score has not improved for a number of iterations, or a solution reaches
+ * the target score. Criteria are checked between iterations, so a run may overrun its time budget by at most
+ * the duration of one iteration.
+ */
+public class TOPTWGRASPConfig {
+    public static final int NO_LIMIT = -1;
+
+    private int maxIterations;
+    private int maxSizeRCL;
+    private long timeBudgetMillis;
+    private int stagnationLimit;
+    private double targetScore;
+
+    public TOPTWGRASPConfig(int maxIterations, int maxSizeRCL) {
+        this.maxIterations = maxIterations;
+        this.maxSizeRCL = maxSizeRCL;
+        this.timeBudgetMillis = NO_LIMIT;
+        this.stagnationLimit = NO_LIMIT;
+        this.targetScore = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @brief Checks that at least one stopping criterion is enabled and that the limits are valid.
+     * @throws IllegalArgumentException If the run would never stop, would run no iteration or has no RCL.
+     */
+    public void validate() {
+        if (this.maxIterations == NO_LIMIT && this.timeBudgetMillis == NO_LIMIT && this.stagnationLimit == NO_LIMIT
+                && this.targetScore == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("GRASP configuration without stopping criterion");
+        }
+        if (this.maxIterations != NO_LIMIT && this.maxIterations <= 0) {
+            throw new IllegalArgumentException("Invalid number of iterations: " + this.maxIterations);
+        }
+        if (this.maxSizeRCL <= 0) {
+            throw new IllegalArgumentException("Invalid RCL size: " + this.maxSizeRCL);
+        }
+    }
+
+    public int getMaxIterations() {
+        return this.maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public int getMaxSizeRCL() {
+        return this.maxSizeRCL;
+    }
+
+    public void setMaxSizeRCL(int maxSizeRCL) {
+        this.maxSizeRCL = maxSizeRCL;
+    }
+
+    public long getTimeBudgetMillis() {
+        return this.timeBudgetMillis;
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public int getStagnationLimit() {
+        return this.stagnationLimit;
+    }
+
+    public void setStagnationLimit(int stagnationLimit) {
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    public double getTargetScore() {
+        return this.targetScore;
+    }
+
+    public void setTargetScore(double targetScore) {
+        this.targetScore = targetScore;
+    }
+}
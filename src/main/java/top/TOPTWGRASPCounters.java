@@ -0,0 +1,38 @@
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWGRASPCounters
+ * @brief Plain counters of the work done by one solver, added to the shared TOPTWGRASPMetrics after each iteration.
+ *
+ * The constructive phase increments these fields in its innermost loops, so they are ordinary longs owned by a
+ * single thread; only the per-iteration flush touches shared state.
+ */
+class TOPTWGRASPCounters {
+    public static final int RCL_SIZE_BUCKETS = 65;
+
+    long constructions;
+    long evaluations;
+    long rejectedDueTime;
+    long rejectedMaxTime;
+    long rejectedDownstream;
+    long selections;
+    final long[] rclSizes = new long[RCL_SIZE_BUCKETS];
+
+    // El último intervalo acumula las listas de RCL_SIZE_BUCKETS - 1 candidatos o más
+    void recordSelection(int rclSize) {
+        this.rclSizes[Math.min(rclSize, RCL_SIZE_BUCKETS - 1)]++;
+        this.selections++;
+    }
+
+    void clear() {
+        this.constructions = 0;
+        this.evaluations = 0;
+        this.rejectedDueTime = 0;
+        this.rejectedMaxTime = 0;
+        this.rejectedDownstream = 0;
+        this.selections = 0;
+        Arrays.fill(this.rclSizes, 0);
+    }
+}
@@ -0,0 +1,46 @@
+package top;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @class TOPTWGRASPIterationEvent
+ * @brief Flight Recorder event emitted for every GRASP iteration, spanning its construction and local search.
+ *
+ * The event is disabled unless a recording enables it, in which case the counts of the iteration are copied into
+ * it before they are added to the metrics of the solver.
+ */
+@Name("top.GRASPIteration")
+@Label("GRASP Iteration")
+@Category({"TOPTW", "GRASP"})
+@Description("Construction and improvement of one GRASP solution")
+@StackTrace(false)
+class TOPTWGRASPIterationEvent extends Event {
+    @Label("Iteration")
+    int iteration;
+
+    @Label("Fitness")
+    double fitness;
+
+    @Label("Insertion Evaluations")
+    long evaluations;
+
+    @Label("Rejected By Due Time")
+    long rejectedDueTime;
+
+    @Label("Rejected By Max Time")
+    long rejectedMaxTime;
+
+    @Label("Rejected Downstream")
+    long rejectedDownstream;
+
+    @Label("RCL Selections")
+    long selections;
+
+    @Label("Improved Best")
+    boolean improved;
+}
@@ -0,0 +1,127 @@
+package top;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @class TOPTWGRASPMetrics
+ * @brief Cumulative measurements of the GRASP runs of a solver and its parallel workers.
+ *
+ * Each worker counts its own work in plain fields and adds them here once per iteration, so the striped LongAdder
+ * counters are touched a handful of times per constructed solution and never from the insertion loops. The
+ * measurements cover constructions, insertion evaluations, insertions rejected by the due time of the candidate,
+ * by the time limit of the route or by the windows of the nodes after it, the sizes of the restricted candidate
+ * lists selections were made from, and the best score of each run over time. Only work done inside GRASP runs is
+ * measured. snapshot() gives a consistent enough copy to be read while runs are in progress.
+ */
+public class TOPTWGRASPMetrics {
+    private static final int INITIAL_TRACE_CAPACITY = 64;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAdder constructions = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder rejectedDueTime = new LongAdder();
+    private final LongAdder rejectedMaxTime = new LongAdder();
+    private final LongAdder rejectedDownstream = new LongAdder();
+    private final LongAdder selections = new LongAdder();
+    private final LongAdder[] rclSizes;
+    private int improvements;
+    private int[] improvementRuns;
+    private long[] improvementNanos;
+    private double[] improvementScores;
+
+    public TOPTWGRASPMetrics() {
+        this.rclSizes = new LongAdder[TOPTWGRASPCounters.RCL_SIZE_BUCKETS];
+        for (int i = 0; i < this.rclSizes.length; i++) {
+            this.rclSizes[i] = new LongAdder();
+        }
+        this.clearTrace();
+    }
+
+    // Vuelca los contadores de un worker y los deja a cero
+    void flush(TOPTWGRASPCounters counters) {
+        this.constructions.add(counters.constructions);
+        this.evaluations.add(counters.evaluations);
+        this.rejectedDueTime.add(counters.rejectedDueTime);
+        this.rejectedMaxTime.add(counters.rejectedMaxTime);
+        this.rejectedDownstream.add(counters.rejectedDownstream);
+        if (counters.selections > 0) {
+            this.selections.add(counters.selections);
+            for (int i = 0; i < counters.rclSizes.length; i++) {
+                if (counters.rclSizes[i] != 0) {
+                    this.rclSizes[i].add(counters.rclSizes[i]);
+                }
+            }
+        }
+        counters.clear();
+    }
+
+    /**
+     * @brief Registers the start of a run.
+     * @return The number of the run, used to tag its points of the score trace.
+     */
+    synchronized int startRun() {
+        int run = this.runs.intValue();
+        this.runs.increment();
+        return run;
+    }
+
+    void runFinished(long elapsedNanos) {
+        this.runNanos.add(elapsedNanos);
+    }
+
+    synchronized void bestImproved(int run, long elapsedNanos, double score) {
+        if (this.improvements == this.improvementRuns.length) {
+            int capacity = this.improvements * 2;
+            this.improvementRuns = Arrays.copyOf(this.improvementRuns, capacity);
+            this.improvementNanos = Arrays.copyOf(this.improvementNanos, capacity);
+            this.improvementScores = Arrays.copyOf(this.improvementScores, capacity);
+        }
+        this.improvementRuns[this.improvements] = run;
+        this.improvementNanos[this.improvements] = elapsedNanos;
+        this.improvementScores[this.improvements] = score;
+        this.improvements++;
+    }
+
+    /**
+     * @brief Copies the current values of every measurement.
+     */
+    public synchronized TOPTWGRASPMetricsSnapshot snapshot() {
+        long[] sizes = new long[this.rclSizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = this.rclSizes[i].sum();
+        }
+        return new TOPTWGRASPMetricsSnapshot(this.runs.sum(), this.runNanos.sum(), this.constructions.sum(),
+                this.evaluations.sum(), this.rejectedDueTime.sum(), this.rejectedMaxTime.sum(),
+                this.rejectedDownstream.sum(), this.selections.sum(), sizes,
+                Arrays.copyOf(this.improvementRuns, this.improvements),
+                Arrays.copyOf(this.improvementNanos, this.improvements),
+                Arrays.copyOf(this.improvementScores, this.improvements));
+    }
+
+    /**
+     * @brief Sets every measurement back to zero; meant to be called between runs.
+     */
+    public synchronized void reset() {
+        this.runs.reset();
+        this.runNanos.reset();
+        this.constructions.reset();
+        this.evaluations.reset();
+        this.rejectedDueTime.reset();
+        this.rejectedMaxTime.reset();
+        this.rejectedDownstream.reset();
+        this.selections.reset();
+        for (LongAdder size : this.rclSizes) {
+            size.reset();
+        }
+        this.clearTrace();
+    }
+
+    private void clearTrace() {
+        this.improvements = 0;
+        this.improvementRuns = new int[INITIAL_TRACE_CAPACITY];
+        this.improvementNanos = new long[INITIAL_TRACE_CAPACITY];
+        this.improvementScores = new double[INITIAL_TRACE_CAPACITY];
+    }
+}
@@ -0,0 +1,156 @@
+package top;
+
+import java.util.Locale;
+
+/**
+ * @class TOPTWGRASPMetricsSnapshot
+ * @brief Immutable copy of the measurements of TOPTWGRASPMetrics at some point in time.
+ *
+ * Besides the raw counts it derives the figures used to tune the construction: constructions per second of run
+ * time, the share of evaluated insertions rejected for each reason and the mean size of the restricted candidate
+ * lists. The score trace lists every improvement of the best score of each run with the time it happened, relative
+ * to the start of its run.
+ */
+public class TOPTWGRASPMetricsSnapshot {
+    private final long runs;
+    private final long runNanos;
+    private final long constructions;
+    private final long evaluations;
+    private final long rejectedDueTime;
+    private final long rejectedMaxTime;
+    private final long rejectedDownstream;
+    private final long selections;
+    private final long[] rclSizes;
+    private final int[] improvementRuns;
+    private final long[] improvementNanos;
+    private final double[] improvementScores;
+
+    TOPTWGRASPMetricsSnapshot(long runs, long runNanos, long constructions, long evaluations, long rejectedDueTime,
+            long rejectedMaxTime, long rejectedDownstream, long selections, long[] rclSizes, int[] improvementRuns,
+            long[] improvementNanos, double[] improvementScores) {
+        this.runs = runs;
+        this.runNanos = runNanos;
+        this.constructions = constructions;
+        this.evaluations = evaluations;
+        this.rejectedDueTime = rejectedDueTime;
+        this.rejectedMaxTime = rejectedMaxTime;
+        this.rejectedDownstream = rejectedDownstream;
+        this.selections = selections;
+        this.rclSizes = rclSizes;
+        this.improvementRuns = improvementRuns;
+        this.improvementNanos = improvementNanos;
+        this.improvementScores = improvementScores;
+    }
+
+    public long getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * @brief Wall-clock time of the finished runs.
+     */
+    public double getRunMillis() {
+        return this.runNanos / 1e6;
+    }
+
+    public long getConstructions() {
+        return this.constructions;
+    }
+
+    /**
+     * @brief Solutions constructed per second of run time, all workers together.
+     */
+    public double getConstructionsPerSecond() {
+        return this.runNanos == 0 ? 0.0 : this.constructions * 1e9 / this.runNanos;
+    }
+
+    /**
+     * @brief Number of insertion positions evaluated.
+     */
+    public long getEvaluations() {
+        return this.evaluations;
+    }
+
+    /**
+     * @brief Insertions rejected because the candidate would arrive after its due time.
+     */
+    public long getRejectedByDueTime() {
+        return this.rejectedDueTime;
+    }
+
+    /**
+     * @brief Insertions rejected because the candidate or its successor would end after the time limit of the route.
+     */
+    public long getRejectedByMaxTime() {
+        return this.rejectedMaxTime;
+    }
+
+    /**
+     * @brief Insertions rejected because the successor of the candidate, or a node after it, would miss its window.
+     */
+    public long getRejectedDownstream() {
+        return this.rejectedDownstream;
+    }
+
+    public long getRejections() {
+        return this.rejectedDueTime + this.rejectedMaxTime + this.rejectedDownstream;
+    }
+
+    /**
+     * @brief Number of candidates selected from a restricted candidate list.
+     */
+    public long getSelections() {
+        return this.selections;
+    }
+
+    public int getRCLSizeBuckets() {
+        return this.rclSizes.length;
+    }
+
+    /**
+     * @brief Number of selections made from a list of the given size; the last bucket counts that size or more.
+     */
+    public long getRCLSizeCount(int size) {
+        return this.rclSizes[Math.min(size, this.rclSizes.length - 1)];
+    }
+
+    /**
+     * @brief Mean size of the lists selections were made from, counting the last bucket at its lower bound.
+     */
+    public double getMeanRCLSize() {
+        if (this.selections == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < this.rclSizes.length; i++) {
+            sum += (double)i * this.rclSizes[i];
+        }
+        return sum / this.selections;
+    }
+
+    public int getImprovements() {
+        return this.improvementRuns.length;
+    }
+
+    public int getImprovementRun(int index) {
+        return this.improvementRuns[index];
+    }
+
+    public double getImprovementMillis(int index) {
+        return this.improvementNanos[index] / 1e6;
+    }
+
+    public double getImprovementScore(int index) {
+        return this.improvementScores[index];
+    }
+
+    @Override
+    public String toString() {
+        double evaluated = Math.max(1, this.evaluations);
+        return String.format(Locale.ROOT, "RUNS: %d CONSTRUCTIONS: %d (%.1f/s) EVALUATIONS: %d REJECTED: "
+                + "due time %.1f%%, max time %.1f%%, downstream %.1f%% MEAN RCL SIZE: %.2f IMPROVEMENTS: %d",
+                this.runs, this.constructions, this.getConstructionsPerSecond(), this.evaluations,
+                100.0 * this.rejectedDueTime / evaluated, 100.0 * this.rejectedMaxTime / evaluated,
+                100.0 * this.rejectedDownstream / evaluated, this.getMeanRCLSize(), this.getImprovements());
+    }
+}
@@ -0,0 +1,37 @@
+package top;
+
+import java.io.PrintStream;
+
+/**
+ * @class TOPTWGRASPObserver
+ * @brief Receives the progress of a GRASP run.
+ *
+ * The solver notifies every completed iteration, every iteration that improves the best fitness of the run and
+ * the final summary. All methods do nothing by default, so the silent observer used when none is configured does
+ * not format any output. In parallel runs the iteration callbacks are invoked from the worker threads, each with
+ * the solution owned by that worker, and must be thread-safe.
+ */
+public interface TOPTWGRASPObserver {
+    TOPTWGRASPObserver SILENT = new TOPTWGRASPObserver() {};
+
+    default void iterationCompleted(int iteration, TOPTWSolution solution, double fitness) {
+    }
+
+    default void bestImproved(int iteration, TOPTWSolution solution, double fitness) {
+    }
+
+    default void runFinished(TOPTWGRASPResult result) {
+    }
+
+    static TOPTWGRASPObserver summary(PrintStream out) {
+        return new TOPTWGRASPPrinter(out, TOPTWGRASPPrinter.SUMMARY);
+    }
+
+    static TOPTWGRASPObserver bestImprovements(PrintStream out) {
+        return new TOPTWGRASPPrinter(out, TOPTWGRASPPrinter.BEST_IMPROVEMENTS);
+    }
+
+    static TOPTWGRASPObserver fullTrace(PrintStream out) {
+        return new TOPTWGRASPPrinter(out, TOPTWGRASPPrinter.FULL_TRACE);
+    }
+}
@@ -0,0 +1,49 @@
+package top;
+
+import java.io.PrintStream;
+
+/**
+ * @class TOPTWGRASPPrinter
+ * @brief Observer that prints the progress of a GRASP run to a stream.
+ *
+ * The level of detail selects what is printed: only the final summary, also a line for each improvement of the
+ * best fitness, or also the full description of every constructed solution. Solutions are only formatted at the
+ * levels that print them.
+ */
+public class TOPTWGRASPPrinter implements TOPTWGRASPObserver {
+    public static final int SUMMARY = 0;
+    public static final int BEST_IMPROVEMENTS = 1;
+    public static final int FULL_TRACE = 2;
+
+    private final PrintStream out;
+    private final int detail;
+
+    public TOPTWGRASPPrinter(PrintStream out, int detail) {
+        this.out = out;
+        this.detail = detail;
+    }
+
+    @Override
+    public void iterationCompleted(int iteration, TOPTWSolution solution, double fitness) {
+        if (this.detail == FULL_TRACE) {
+            this.out.println(solution.getInfoSolution());
+        }
+    }
+
+    @Override
+    public void bestImproved(int iteration, TOPTWSolution solution, double fitness) {
+        if (this.detail >= BEST_IMPROVEMENTS) {
+            this.out.println(" --> ITERACION " + iteration + ": " + fitness);
+        }
+    }
+
+    @Override
+    public void runFinished(TOPTWGRASPResult result) {
+        this.out.println(" --> MEDIA: " + result.getAverageFitness());
+        this.out.println(" --> MEJOR SOLUCION: " + result.getBestFitness());
+    }
+
+    public int getDetail() {
+        return this.detail;
+    }
+}
@@ -0,0 +1,92 @@
+package top;
+
+/**
+ * @class TOPTWGRASPResult
+ * @brief Summary of a GRASP run over a TOPTW instance.
+ *
+ * This class stores the figures reported at the end of a GRASP run: the best and average fitness of the
+ * constructed solutions, the number of iterations performed, the iteration in which the best solution was found,
+ * the time at which that iteration completed, the wall-clock time of the whole run and a copy of the best
+ * solution. Results of independent workers are reduced from the per-iteration fitness values, so the summary does
+ * not depend on how the iterations were distributed.
+ */
+public class TOPTWGRASPResult {
+    private double bestFitness;
+    private double averageFitness;
+    private int iterations;
+    private int bestIteration;
+    private long timeToBestNanos;
+    private long elapsedNanos;
+    private TOPTWSolution bestSolution;
+
+    public TOPTWGRASPResult(double bestFitness, double averageFitness, int iterations, int bestIteration,
+            long timeToBestNanos, long elapsedNanos, TOPTWSolution bestSolution) {
+        this.bestFitness = bestFitness;
+        this.averageFitness = averageFitness;
+        this.iterations = iterations;
+        this.bestIteration = bestIteration;
+        this.timeToBestNanos = timeToBestNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.bestSolution = bestSolution;
+    }
+
+    /**
+     * @brief Reduces the first iterations of a run in iteration order.
+     * @param fitnesses Fitness of each iteration.
+     * @param finishTimes Time, relative to the start of the run, at which each iteration completed.
+     * @param iterations Number of iterations performed.
+     * @param elapsedNanos Wall-clock time of the run.
+     * @param bestSolution Solution of the best iteration, or null if no iteration was performed.
+     */
+    public static TOPTWGRASPResult reduce(double[] fitnesses, long[] finishTimes, int iterations, long elapsedNanos,
+            TOPTWSolution bestSolution) {
+        double averageFitness = 0.0;
+        double bestFitness = 0.0;
+        int bestIteration = TOPTWSolution.NO_INITIALIZED;
+        for(int i = 0; i < iterations; i++) {
+            averageFitness += fitnesses[i];
+            if(bestIteration == TOPTWSolution.NO_INITIALIZED || bestFitness < fitnesses[i]) {
+                bestFitness = fitnesses[i];
+                bestIteration = i;
+            }
+        }
+        averageFitness = averageFitness/iterations;
+        long timeToBestNanos = bestIteration == TOPTWSolution.NO_INITIALIZED ? 0 : finishTimes[bestIteration];
+        return new TOPTWGRASPResult(bestFitness, averageFitness, iterations, bestIteration, timeToBestNanos,
+                elapsedNanos, bestSolution);
+    }
+
+    public double getBestFitness() {
+        return this.bestFitness;
+    }
+
+    public double getAverageFitness() {
+        return this.averageFitness;
+    }
+
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    public int getBestIteration() {
+        return this.bestIteration;
+    }
+
+    public double getTimeToBestMillis() {
+        return this.timeToBestNanos / 1e6;
+    }
+
+    public double getElapsedMillis() {
+        return this.elapsedNanos / 1e6;
+    }
+
+    public TOPTWSolution getBestSolution() {
+        return this.bestSolution;
+    }
+
+    @Override
+    public String toString() {
+        return "BEST: " + this.bestFitness + " AVERAGE: " + this.averageFitness +  " ITERATIONS: " + this.iterations
+                + " TIME TO BEST: " + this.getTimeToBestMillis() + " ms";
+    }
+}
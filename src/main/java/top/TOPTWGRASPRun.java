@@ -0,0 +1,130 @@
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWGRASPRun
+ * @brief State of one GRASP run shared by the workers executing it.
+ *
+ * The run hands out iteration indexes in increasing order, stores the fitness and completion time of every
+ * iteration, keeps a copy of the best solution and decides when to stop according to the configuration. It is
+ * consulted once per iteration, which is also the only point where the clock is read, so the synchronization is
+ * negligible next to the cost of building a solution. Among solutions of equal fitness the one of the earliest
+ * iteration is kept, as the sequential run would. Improvements of the best fitness and the end of the run are
+ * reported to the metrics of the solver and to the Flight Recorder.
+ */
+class TOPTWGRASPRun {
+    public static final int NO_ITERATION = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxIterations;
+    private final long timeBudgetNanos;
+    private final int stagnationLimit;
+    private final double targetScore;
+    private final long startTime;
+    private final TOPTWGRASPMetrics metrics;
+    private final int run;
+    private final TOPTWGRASPRunEvent event;
+    private final int maxSizeRCL;
+    private final int pois;
+    private double[] fitnesses;
+    private long[] finishTimes;
+    private int claimedIterations;
+    private int completedIterations;
+    private double bestFitness;
+    private int bestIteration;
+    private TOPTWSolution bestSolution;
+    private int lastImprovement;
+    private boolean stopped;
+
+    public TOPTWGRASPRun(TOPTWGRASPConfig config, TOPTW problem, TOPTWGRASPMetrics metrics) {
+        this.maxIterations = config.getMaxIterations() == TOPTWGRASPConfig.NO_LIMIT ? Integer.MAX_VALUE
+                : config.getMaxIterations();
+        this.timeBudgetNanos = config.getTimeBudgetMillis() == TOPTWGRASPConfig.NO_LIMIT ? Long.MAX_VALUE
+                : config.getTimeBudgetMillis() * 1000000L;
+        this.stagnationLimit = config.getStagnationLimit();
+        this.targetScore = config.getTargetScore();
+        int capacity = Math.min(this.maxIterations, INITIAL_CAPACITY);
+        this.fitnesses = new double[capacity];
+        this.finishTimes = new long[capacity];
+        this.claimedIterations = 0;
+        this.completedIterations = 0;
+        this.bestFitness = 0.0;
+        this.bestIteration = NO_ITERATION;
+        this.bestSolution = new TOPTWSolution(problem);
+        this.lastImprovement = 0;
+        this.stopped = false;
+        this.metrics = metrics;
+        this.run = metrics.startRun();
+        this.maxSizeRCL = config.getMaxSizeRCL();
+        this.pois = problem.getPOIs();
+        this.event = new TOPTWGRASPRunEvent();
+        this.event.begin();
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * @brief Claims the next iteration to execute.
+     * @return The iteration index, or NO_ITERATION once the run has stopped.
+     */
+    public synchronized int nextIteration() {
+        if (this.stopped || this.claimedIterations >= this.maxIterations) {
+            return NO_ITERATION;
+        }
+        if (this.claimedIterations == this.fitnesses.length) {
+            int capacity = (int)Math.min((long)this.fitnesses.length * 2 + 1, this.maxIterations);
+            this.fitnesses = Arrays.copyOf(this.fitnesses, capacity);
+            this.finishTimes = Arrays.copyOf(this.finishTimes, capacity);
+        }
+        return this.claimedIterations++;
+    }
+
+    /**
+     * @brief Records the fitness of a completed iteration and evaluates the stopping criteria.
+     * @param iteration Index returned by nextIteration.
+     * @param fitness Fitness of the solution built in that iteration.
+     * @param solution Solution built in that iteration, copied if it is the best one so far.
+     * @return True if the fitness improves the best one recorded so far.
+     */
+    public synchronized boolean record(int iteration, double fitness, TOPTWSolution solution) {
+        long elapsed = System.nanoTime() - this.startTime;
+        this.fitnesses[iteration] = fitness;
+        this.finishTimes[iteration] = elapsed;
+        this.completedIterations++;
+        boolean improved = this.bestIteration == NO_ITERATION || fitness > this.bestFitness;
+        if (improved || (fitness == this.bestFitness && iteration < this.bestIteration)) {
+            this.bestFitness = fitness;
+            this.bestIteration = iteration;
+            solution.copyInto(this.bestSolution);
+        }
+        if (improved) {
+            this.lastImprovement = this.completedIterations;
+            this.metrics.bestImproved(this.run, elapsed, fitness);
+        }
+        if (fitness >= this.targetScore || elapsed >= this.timeBudgetNanos || (this.stagnationLimit != TOPTWGRASPConfig.NO_LIMIT
+                && this.completedIterations - this.lastImprovement >= this.stagnationLimit)) {
+            this.stopped = true;
+        }
+        return improved;
+    }
+
+    /**
+     * @brief Summarizes the run once every claimed iteration has been recorded and reports its end.
+     */
+    public synchronized TOPTWGRASPResult finish() {
+        long elapsed = System.nanoTime() - this.startTime;
+        TOPTWGRASPResult result = TOPTWGRASPResult.reduce(this.fitnesses, this.finishTimes, this.claimedIterations,
+                elapsed, this.bestIteration == NO_ITERATION ? null : this.bestSolution);
+        this.metrics.runFinished(elapsed);
+        if (this.event.shouldCommit()) {
+            this.event.pois = this.pois;
+            this.event.maxSizeRCL = this.maxSizeRCL;
+            this.event.iterations = result.getIterations();
+            this.event.bestFitness = result.getBestFitness();
+            this.event.averageFitness = result.getAverageFitness();
+            this.event.timeToBest = this.bestIteration == NO_ITERATION ? 0 : this.finishTimes[this.bestIteration];
+            this.event.commit();
+        }
+        return result;
+    }
+}
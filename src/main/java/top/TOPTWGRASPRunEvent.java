@@ -0,0 +1,39 @@
+package top;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * @class TOPTWGRASPRunEvent
+ * @brief Flight Recorder event emitted for every GRASP run, spanning all its iterations.
+ */
+@Name("top.GRASPRun")
+@Label("GRASP Run")
+@Category({"TOPTW", "GRASP"})
+@Description("Complete GRASP run over an instance")
+@StackTrace(false)
+class TOPTWGRASPRunEvent extends Event {
+    @Label("POIs")
+    int pois;
+
+    @Label("Max RCL Size")
+    int maxSizeRCL;
+
+    @Label("Iterations")
+    int iterations;
+
+    @Label("Best Fitness")
+    double bestFitness;
+
+    @Label("Average Fitness")
+    double averageFitness;
+
+    @Label("Time To Best")
+    @Timespan(Timespan.NANOSECONDS)
+    long timeToBest;
+}
@@ -0,0 +1,434 @@
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWLocalSearch
+ * @brief Local search for TOPTW solutions working on the predecessor/successor arrays.
+ *
+ * This class improves a constructed solution with a variable neighbourhood descent over five moves:
+ * insertion of unrouted POIs (highest score first), inter-route relocate and swap, and intra-route 2-opt and or-opt.
+ * Insertions raise the score; the other moves are accepted when they shorten the travelled distance, which frees
+ * time for later insertions. For every routed node the search keeps its departure time and its latest feasible
+ * departure time (forward time slack), so the feasibility of insertions, relocations and swaps is checked in
+ * constant time, and 2-opt/or-opt only walk the part of the route they reorder. Distances are assumed symmetric.
+ *
+ * The shortening moves are driven by don't-look bits: each sweep only tries the moves of the nodes whose bit is
+ * cleared, applies every improving move it finds without restarting, and clears the bits of the endpoints of the
+ * arcs changed by a move or an insertion. A node with no improving move keeps its bit set until one of its arcs
+ * changes again.
+ */
+public class TOPTWLocalSearch {
+    private static final double INFEASIBLE = Double.MAX_VALUE;
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_SEGMENT_LENGTH = 3;
+
+    private TOPTW problem;
+    private TOPTWSolution solution;
+    private double[] departureTimes;
+    private double[] latestDepartures;
+    private int[] routeOf;
+    private int[] positionInRoute;
+    private int[] poisByScore;
+    private boolean[] dontLook;
+    private int unroutedPOIs;
+    private int maxMoves;
+
+    public TOPTWLocalSearch(TOPTW problem) {
+        this.problem = problem;
+        int size = problem.getPOIs() + problem.getVehicles();
+        this.departureTimes = new double[size];
+        this.latestDepartures = new double[size];
+        this.routeOf = new int[size];
+        this.positionInRoute = new int[size];
+        this.dontLook = new boolean[size];
+        this.maxMoves = Integer.MAX_VALUE;
+        // POIs ordenados por puntuación decreciente para intentar primero los más valiosos
+        Integer[] order = new Integer[problem.getPOIs()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i + 1;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(problem.getScore(b), problem.getScore(a)));
+        this.poisByScore = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.poisByScore[i] = order[i];
+        }
+    }
+
+    public TOPTW getProblem() {
+        return this.problem;
+    }
+
+    public int getMaxMoves() {
+        return this.maxMoves;
+    }
+
+    public void setMaxMoves(int maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * @brief Applies improving moves to a solution until none is left.
+     * @param solution Solution to improve in place; it must belong to the problem of this search.
+     * @return Number of moves applied.
+     */
+    public int improve(TOPTWSolution solution) {
+        this.solution = solution;
+        this.loadRoutes();
+        int moves = 0;
+        // Con todos los POIs en ruta la puntuación ya no puede mejorar
+        while (moves < this.maxMoves && this.unroutedPOIs > 0) {
+            int inserted = this.insertUnrouted(this.maxMoves - moves);
+            moves += inserted;
+            if (inserted > 0 || moves >= this.maxMoves) {
+                continue;
+            }
+            // Sin inserciones posibles se acortan las rutas hasta un óptimo local y se vuelve a intentar
+            int shortened = this.shortenRoutes(this.maxMoves - moves);
+            if (shortened == 0) {
+                break;
+            }
+            moves += shortened;
+        }
+        this.solution = null;
+        return moves;
+    }
+
+    // Barridos sobre los nodos con el bit don't-look desactivado hasta que ninguno mejora
+    private int shortenRoutes(int maxMoves) {
+        int moves = 0;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int c = 1; c <= this.problem.getPOIs(); c++) {
+                if (this.dontLook[c] || this.routeOf[c] == TOPTWSolution.NO_INITIALIZED) {
+                    continue;
+                }
+                if (this.relocate(c) || this.swap(c) || this.twoOpt(c) || this.orOpt(c)) {
+                    improved = true;
+                    if (++moves >= maxMoves) {
+                        return moves;
+                    }
+                } else {
+                    this.dontLook[c] = true;
+                }
+            }
+        }
+        return moves;
+    }
+
+    private void loadRoutes() {
+        Arrays.fill(this.routeOf, TOPTWSolution.NO_INITIALIZED);
+        Arrays.fill(this.dontLook, false);
+        for (int k = 0; k < this.solution.getCreatedRoutes(); k++) {
+            this.loadRoute(k);
+        }
+        this.unroutedPOIs = 0;
+        for (int c : this.poisByScore) {
+            if (this.routeOf[c] == TOPTWSolution.NO_INITIALIZED) {
+                this.unroutedPOIs++;
+            }
+        }
+    }
+
+    // Recalcula posiciones, tiempos de salida y salidas más tardías de la ruta k
+    private void loadRoute(int k) {
+        int depot = this.solution.getIndexRoute(k);
+        this.routeOf[depot] = k;
+        this.positionInRoute[depot] = 0;
+        this.departureTimes[depot] = 0.0;
+        int pre = depot, node = this.solution.getSuccessor(depot), position = 1;
+        while (node != depot) {
+            this.routeOf[node] = k;
+            this.positionInRoute[node] = position++;
+            this.departureTimes[node] = this.departure(pre, this.departureTimes[pre], node);
+            pre = node;
+            node = this.solution.getSuccessor(node);
+        }
+        double latest = Double.POSITIVE_INFINITY;
+        node = depot;
+        do {
+            pre = this.solution.getPredecessor(node);
+            latest = this.latestDeparture(pre, node, latest);
+            this.latestDepartures[pre] = latest;
+            node = pre;
+        } while (node != depot);
+    }
+
+    // Una sola pasada por puntuación: las inserciones solo reducen la holgura, así que un POI que no cabe
+    // tampoco cabrá después de insertar los siguientes
+    private int insertUnrouted(int maxMoves) {
+        int inserted = 0;
+        for (int c : this.poisByScore) {
+            if (inserted >= maxMoves) {
+                break;
+            }
+            if (this.routeOf[c] != TOPTWSolution.NO_INITIALIZED) {
+                continue;
+            }
+            int bestPre = TOPTWSolution.NO_INITIALIZED;
+            double bestDelta = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < this.solution.getCreatedRoutes(); k++) {
+                int depot = this.solution.getIndexRoute(k);
+                int p = depot;
+                do {
+                    int s = this.solution.getSuccessor(p);
+                    double delta = this.distance(p, c) + this.distance(c, s) - this.distance(p, s);
+                    if (delta < bestDelta && this.canInsert(c, p, s, depot)) {
+                        bestDelta = delta;
+                        bestPre = p;
+                    }
+                    p = s;
+                } while (p != depot);
+            }
+            if (bestPre != TOPTWSolution.NO_INITIALIZED) {
+                int bestSuc = this.solution.getSuccessor(bestPre);
+                this.link(bestPre, c, bestSuc);
+                this.loadRoute(this.routeOf[bestPre]);
+                this.dontLook[bestPre] = false;
+                this.dontLook[bestSuc] = false;
+                this.unroutedPOIs--;
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    // Lleva c a la primera posición de otra ruta que acorte el recorrido
+    private boolean relocate(int c) {
+        int kA = this.routeOf[c];
+        int depotA = this.solution.getIndexRoute(kA);
+        int a = this.solution.getPredecessor(c), b = this.solution.getSuccessor(c);
+        double removalGain = this.distance(a, c) + this.distance(c, b) - this.distance(a, b);
+        if (this.reconnect(a, this.departureTimes[a], b, depotA) == INFEASIBLE) {
+            return false;
+        }
+        for (int kB = 0; kB < this.solution.getCreatedRoutes(); kB++) {
+            if (kB == kA) {
+                continue;
+            }
+            int depotB = this.solution.getIndexRoute(kB);
+            int p = depotB;
+            do {
+                int s = this.solution.getSuccessor(p);
+                double delta = this.distance(p, c) + this.distance(c, s) - this.distance(p, s) - removalGain;
+                if (delta < -EPSILON && this.canInsert(c, p, s, depotB)) {
+                    this.unlink(c);
+                    this.link(p, c, s);
+                    this.loadRoute(kA);
+                    this.loadRoute(kB);
+                    this.wake(a, b, p, s);
+                    return true;
+                }
+                p = s;
+            } while (p != depotB);
+        }
+        return false;
+    }
+
+    private boolean swap(int c) {
+        int kA = this.routeOf[c];
+        int depotA = this.solution.getIndexRoute(kA);
+        int a = this.solution.getPredecessor(c), b = this.solution.getSuccessor(c);
+        for (int kB = 0; kB < this.solution.getCreatedRoutes(); kB++) {
+            if (kB == kA) {
+                continue;
+            }
+            int depotB = this.solution.getIndexRoute(kB);
+            for (int e = this.solution.getSuccessor(depotB); e != depotB; e = this.solution.getSuccessor(e)) {
+                int p = this.solution.getPredecessor(e), s = this.solution.getSuccessor(e);
+                double delta = this.distance(a, e) + this.distance(e, b) - this.distance(a, c) - this.distance(c, b)
+                        + this.distance(p, c) + this.distance(c, s) - this.distance(p, e) - this.distance(e, s);
+                if (delta < -EPSILON && this.canInsert(e, a, b, depotA) && this.canInsert(c, p, s, depotB)) {
+                    this.unlink(c);
+                    this.unlink(e);
+                    this.link(a, e, b);
+                    this.link(p, c, s);
+                    this.loadRoute(kA);
+                    this.loadRoute(kB);
+                    this.wake(a, b, p, s);
+                    this.dontLook[e] = false;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Invierte el tramo x..y de una ruta: a, x, ..., y, b pasa a a, y, ..., x, b
+    private boolean twoOpt(int x) {
+        int k = this.routeOf[x];
+        int depot = this.solution.getIndexRoute(k);
+        int a = this.solution.getPredecessor(x);
+        for (int y = this.solution.getSuccessor(x); y != depot; y = this.solution.getSuccessor(y)) {
+            int b = this.solution.getSuccessor(y);
+            double delta = this.distance(a, y) + this.distance(x, b) - this.distance(a, x) - this.distance(y, b);
+            if (delta < -EPSILON && this.isFeasibleReversal(a, x, y, b, depot)) {
+                this.reverse(a, x, y, b);
+                this.loadRoute(k);
+                this.wake(a, x, y, b);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mueve un tramo x..y de hasta MAX_SEGMENT_LENGTH clientes a otra posición p, s de la misma ruta
+    private boolean orOpt(int x) {
+        int k = this.routeOf[x];
+        int depot = this.solution.getIndexRoute(k);
+        int a = this.solution.getPredecessor(x);
+        int y = x;
+        for (int length = 1; length <= MAX_SEGMENT_LENGTH && y != depot; length++) {
+            int b = this.solution.getSuccessor(y);
+            double removalGain = this.distance(a, x) + this.distance(y, b) - this.distance(a, b);
+            int p = depot;
+            do {
+                int s = this.solution.getSuccessor(p);
+                boolean insideSegment = this.positionInRoute[p] >= this.positionInRoute[x]
+                        && this.positionInRoute[p] <= this.positionInRoute[y];
+                if (p != a && !insideSegment) {
+                    double delta = this.distance(p, x) + this.distance(y, s) - this.distance(p, s) - removalGain;
+                    if (delta < -EPSILON && this.isFeasibleSegmentMove(a, x, y, b, p, s, depot)) {
+                        this.moveSegment(a, x, y, b, p, s);
+                        this.loadRoute(k);
+                        this.wake(a, b, p, s);
+                        this.dontLook[y] = false;
+                        return true;
+                    }
+                }
+                p = s;
+            } while (p != depot);
+            y = b;
+        }
+        return false;
+    }
+
+    // Vuelve a activar los extremos de los arcos modificados por un movimiento
+    private void wake(int n1, int n2, int n3, int n4) {
+        this.dontLook[n1] = false;
+        this.dontLook[n2] = false;
+        this.dontLook[n3] = false;
+        this.dontLook[n4] = false;
+    }
+
+    private boolean canInsert(int c, int p, int s, int depot) {
+        double departureC = this.departure(p, this.departureTimes[p], c);
+        return departureC != INFEASIBLE && this.reconnect(c, departureC, s, depot) != INFEASIBLE;
+    }
+
+    private boolean isFeasibleReversal(int a, int x, int y, int b, int depot) {
+        double departure = this.departureTimes[a];
+        int pre = a, node = y;
+        while (true) {
+            departure = this.departure(pre, departure, node);
+            if (departure == INFEASIBLE) {
+                return false;
+            }
+            if (node == x) {
+                break;
+            }
+            pre = node;
+            node = this.solution.getPredecessor(node);
+        }
+        return this.reconnect(x, departure, b, depot) != INFEASIBLE;
+    }
+
+    private boolean isFeasibleSegmentMove(int a, int x, int y, int b, int p, int s, int depot) {
+        double departure;
+        if (this.positionInRoute[p] > this.positionInRoute[y]) {
+            // a, b, ..., p, x..y, s
+            departure = this.advance(a, this.departureTimes[a], b, p);
+            departure = this.advance(p, departure, x, y);
+            return departure != INFEASIBLE && this.reconnect(y, departure, s, depot) != INFEASIBLE;
+        }
+        // p, x..y, s, ..., a, b
+        departure = this.advance(p, this.departureTimes[p], x, y);
+        departure = this.advance(y, departure, s, a);
+        return departure != INFEASIBLE && this.reconnect(a, departure, b, depot) != INFEASIBLE;
+    }
+
+    // Recorre la cadena original first..last llegando desde pre y devuelve la salida de last
+    private double advance(int pre, double departurePre, int first, int last) {
+        double departure = departurePre;
+        int node = first;
+        while (departure != INFEASIBLE) {
+            departure = this.departure(pre, departure, node);
+            if (node == last) {
+                break;
+            }
+            pre = node;
+            node = this.solution.getSuccessor(node);
+        }
+        return departure;
+    }
+
+    // Salida de node llegando desde pre, comprobando además que el resto de la ruta sigue siendo factible
+    private double reconnect(int pre, double departurePre, int node, int depot) {
+        double departure = this.departure(pre, departurePre, node);
+        if (departure == INFEASIBLE || (node != depot && departure > this.latestDepartures[node])) {
+            return INFEASIBLE;
+        }
+        return departure;
+    }
+
+    private double departure(int pre, double departurePre, int node) {
+        if (departurePre == INFEASIBLE) {
+            return INFEASIBLE;
+        }
+        double arrival = departurePre + this.distance(pre, node);
+        if (arrival >= this.problem.getDueTime(node)) {
+            return INFEASIBLE;
+        }
+        double departure = Math.max(arrival, this.problem.getReadyTime(node)) + this.problem.getServiceTime(node);
+        return departure > this.problem.getMaxTimePerRoute() ? INFEASIBLE : departure;
+    }
+
+    private double latestDeparture(int pre, int node, double latestDepartureNode) {
+        double latestStart = Math.min(this.problem.getMaxTimePerRoute(), latestDepartureNode) - this.problem.getServiceTime(node);
+        if (this.problem.getReadyTime(node) > latestStart) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return Math.min(Math.nextDown(this.problem.getDueTime(node)), latestStart) - this.distance(pre, node);
+    }
+
+    private double distance(int i, int j) {
+        return this.problem.getDistance(i, j);
+    }
+
+    private void link(int p, int c, int s) {
+        this.solution.setSuccessor(p, c);
+        this.solution.setPredecessor(c, p);
+        this.solution.setSuccessor(c, s);
+        this.solution.setPredecessor(s, c);
+    }
+
+    private void unlink(int c) {
+        int a = this.solution.getPredecessor(c), b = this.solution.getSuccessor(c);
+        this.solution.setSuccessor(a, b);
+        this.solution.setPredecessor(b, a);
+    }
+
+    private void reverse(int a, int x, int y, int b) {
+        int node = x;
+        while (node != b) {
+            int next = this.solution.getSuccessor(node);
+            this.solution.setSuccessor(node, this.solution.getPredecessor(node));
+            this.solution.setPredecessor(node, next);
+            node = next;
+        }
+        this.solution.setSuccessor(a, y);
+        this.solution.setPredecessor(y, a);
+        this.solution.setSuccessor(x, b);
+        this.solution.setPredecessor(b, x);
+    }
+
+    private void moveSegment(int a, int x, int y, int b, int p, int s) {
+        this.solution.setSuccessor(a, b);
+        this.solution.setPredecessor(b, a);
+        this.solution.setSuccessor(p, x);
+        this.solution.setPredecessor(x, p);
+        this.solution.setSuccessor(y, s);
+        this.solution.setPredecessor(s, y);
+    }
+}
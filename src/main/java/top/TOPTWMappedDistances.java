@@ -0,0 +1,167 @@
+package top;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * @class TOPTWMappedDistances
+ * @brief Distance matrix persisted to a file and memory-mapped read-only.
+ *
+ * The file holds a fixed header followed by the full matrix of the real nodes, row by row, as little-endian
+ * doubles. The header records the number of nodes and a checksum of the coordinates the distances were computed
+ * from, so a file is only reused for the instance it belongs to. Mapping the file instead of reading it lets every
+ * process that opens the same instance share a single copy in the page cache, and skips computing the matrix when
+ * the file already exists. Files larger than a mapped buffer can address are mapped in several chunks of whole
+ * rows. Depot copies are translated to node 0 as in TOPTWDistanceMatrix.
+ */
+public class TOPTWMappedDistances implements TOPTWDistanceProvider {
+    private static final int MAGIC = 0x5450444D;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE;
+
+    private final int size;
+    private final DoubleBuffer[] chunks;
+    private final int[] chunkOf;
+    private final int[] rowOffsets;
+    private final int[] columns;
+
+    private TOPTWMappedDistances(FileChannel channel, long offset, int size, int depotCopies) throws IOException {
+        this.size = size;
+        long rowBytes = 8L * size;
+        int rowsPerChunk = (int)Math.max(1, Math.min(size, MAX_CHUNK_BYTES / rowBytes));
+        this.chunks = new DoubleBuffer[(size + rowsPerChunk - 1) / rowsPerChunk];
+        for (int c = 0; c < this.chunks.length; c++) {
+            int rows = Math.min(rowsPerChunk, size - c * rowsPerChunk);
+            this.chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, offset + c * rowsPerChunk * rowBytes,
+                    rows * rowBytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        this.chunkOf = new int[size + depotCopies];
+        this.rowOffsets = new int[size + depotCopies];
+        this.columns = new int[size + depotCopies];
+        for (int i = 0; i < size; i++) {
+            this.chunkOf[i] = i / rowsPerChunk;
+            this.rowOffsets[i] = (i % rowsPerChunk) * size;
+            this.columns[i] = i;
+        }
+    }
+
+    /**
+     * @brief Maps the distance file of an instance, writing it first if it is missing or belongs to other data.
+     * @param file Path of the distance file.
+     * @param x X coordinate of each real node.
+     * @param y Y coordinate of each real node.
+     * @param size Number of real nodes, the depot included.
+     * @param depotCopies Number of depot copies indexed after the real nodes.
+     * @return A provider reading the mapped file.
+     * @throws IOException If the file cannot be written or mapped.
+     *
+     * A new file is written under a temporary name and moved into place, so concurrent processes never map a
+     * partially written matrix.
+     */
+    public static TOPTWMappedDistances open(Path file, double[] x, double[] y, int size, int depotCopies)
+            throws IOException {
+        long checksum = coordinatesChecksum(x, y, size);
+        if (!isValid(file, size, checksum)) {
+            write(file, x, y, size, checksum);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TOPTWMappedDistances(channel, HEADER_BYTES, size, depotCopies);
+        }
+    }
+
+    /**
+     * @brief Maps a matrix stored at some position of a file written by other code, such as TOPTWBinary.
+     * @param channel Channel of the file, which may be closed once the matrix is mapped.
+     * @param offset Position of the first row in the file.
+     */
+    static TOPTWMappedDistances map(FileChannel channel, long offset, int size, int depotCopies) throws IOException {
+        return new TOPTWMappedDistances(channel, offset, size, depotCopies);
+    }
+
+    private static boolean isValid(Path file, int size, long checksum) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != HEADER_BYTES + 8L * size * size) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return false;
+                }
+            }
+            header.flip();
+            return header.remaining() == HEADER_BYTES && header.getInt() == MAGIC && header.getInt() == VERSION
+                    && header.getInt() == size && header.getLong(16) == checksum;
+        }
+    }
+
+    private static void write(Path file, double[] x, double[] y, int size, long checksum) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(0).putLong(checksum);
+                header.clear();
+                writeFully(channel, header);
+                writeRows(channel, x, y, size);
+                channel.force(false);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @brief Writes the rows of the matrix at the current position of a channel.
+     */
+    static void writeRows(FileChannel channel, double[] x, double[] y, int size) throws IOException {
+        ByteBuffer row = ByteBuffer.allocateDirect(8 * size).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; i++) {
+            row.clear();
+            for (int j = 0; j < size; j++) {
+                double diffXs = x[i] - x[j];
+                double diffYs = y[i] - y[j];
+                row.putDouble(Math.sqrt(diffXs * diffXs + diffYs * diffYs));
+            }
+            row.flip();
+            writeFully(channel, row);
+        }
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long coordinatesChecksum(double[] x, double[] y, int size) {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; i++) {
+            buffer.clear();
+            buffer.putDouble(x[i]).putDouble(y[i]);
+            crc.update(buffer.array(), 0, 16);
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public double getDistance(int i, int j) {
+        return this.chunks[this.chunkOf[i]].get(this.rowOffsets[i] + this.columns[j]);
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+}
@@ -0,0 +1,84 @@
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWNeighbourhood
+ * @brief Lists of the nearest time-window-compatible POIs of every POI of an instance.
+ *
+ * Two POIs are compatible when one of them can be visited right after the other without missing the due time of
+ * the second one, leaving the first one as early as its window allows. For each POI the list keeps its nearest
+ * compatible POIs, at most a fixed number of them and ordered by distance, so an insertion heuristic can restrict
+ * itself to the positions next to them. They are found with the spatial index of the instance instead of scanning
+ * every pair of POIs. The lists are stored back to back in a single array indexed by node and never change after
+ * construction, so they can be shared between solvers of the same instance.
+ */
+public class TOPTWNeighbourhood {
+    private final TOPTW problem;
+    private final int size;
+    private final int[] offsets;
+    private final int[] neighbours;
+
+    /**
+     * @brief Builds the neighbour lists of all the POIs of an instance.
+     * @param problem Instance the lists refer to.
+     * @param size Maximum number of neighbours kept per POI.
+     */
+    public TOPTWNeighbourhood(TOPTW problem, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid neighbourhood size: " + size);
+        }
+        this.problem = problem;
+        this.size = size;
+        int pois = problem.getPOIs();
+        this.offsets = new int[pois + 2];
+        int[] nearest = new int[size];
+        int[] lists = new int[pois * Math.min(size, Math.max(pois - 1, 0))];
+        int end = 0;
+        for (int i = 1; i <= pois; i++) {
+            this.offsets[i] = end;
+            final int poi = i;
+            int found = problem.getSpatialIndex().nearest(problem.getX(i), problem.getY(i), size,
+                    j -> j != 0 && j != poi && this.areCompatible(poi, j), nearest);
+            System.arraycopy(nearest, 0, lists, end, found);
+            end += found;
+        }
+        this.offsets[pois + 1] = end;
+        this.neighbours = Arrays.copyOf(lists, end);
+    }
+
+    private boolean areCompatible(int a, int b) {
+        return this.reaches(a, b) || this.reaches(b, a);
+    }
+
+    private boolean reaches(int from, int to) {
+        double departure = this.problem.getReadyTime(from) + this.problem.getServiceTime(from);
+        return departure + this.problem.getDistance(from, to) < this.problem.getDueTime(to);
+    }
+
+    /**
+     * @brief Index of the first neighbour of a POI in the neighbour array.
+     */
+    public int getStart(int poi) {
+        return this.offsets[poi];
+    }
+
+    /**
+     * @brief Index past the last neighbour of a POI in the neighbour array.
+     */
+    public int getEnd(int poi) {
+        return this.offsets[poi + 1];
+    }
+
+    public int getNeighbour(int index) {
+        return this.neighbours[index];
+    }
+
+    public TOPTW getProblem() {
+        return this.problem;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+}
@@ -1,11 +1,10 @@
 package top;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-
-import es.ull.esit.utilities.ExpositoUtilities;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 /**
  * @class TOPTWReader
@@ -14,6 +13,10 @@ import es.ull.esit.utilities.ExpositoUtilities;
  * This class provides static methods to load Team Orienteering Problem with Time Windows (TOPTW)
  * instances from a specified file path. It parses the input file, initializes the problem data,
  * and computes the distance matrix required for further processing.
+ * Files follow the layout of Cordeau et al.: a header with the number of routes, nodes and days, one line with
+ * the route duration and capacity of each day (or a single line for all of them, as in the TOPTW benchmark), and
+ * one line per node whose list of visit combinations has a variable length. Both the TOPTW instances and the
+ * periodic (PVRPTW) ones are read this way; the multi-day data is attached as a TOPTWVisitSchedule.
  */
 public class TOPTWReader {
     
@@ -21,45 +24,126 @@ public class TOPTWReader {
      * @brief Reads a TOPTW problem instance from a file.
      * @param filePath Path to the input file containing the problem definition.
      * @return A TOPTW object initialized with the parsed data.
+     * @throws IOException If the file cannot be read.
+     * @throws TOPTWFormatException If the file is not a valid instance; the message gives the line.
      *
      * This method opens the specified file, reads the problem parameters and points of interest (POIs),
-     * sets their coordinates, service times, scores, and time windows, and calculates the distance matrix.
-     * If an error occurs during reading, the method prints the error and terminates the program.
+     * collects their coordinates, service times, scores, and time windows, and builds the immutable problem,
+     * which calculates the distance matrix.
+     * The file is parsed in a single pass by TOPTWTokenizer, without building a string per line or field.
+     */
+    public static TOPTW readProblem(String filePath) throws IOException {
+        return readProblem(filePath, null);
+    }
+    
+    /**
+     * @brief Reads a TOPTW problem instance whose distances are kept in a memory-mapped file.
+     * @param filePath Path to the input file containing the problem definition.
+     * @param distanceFile Path of the distance file, written if it does not hold the distances of this instance;
+     * null to keep the distances in memory.
+     * @return A TOPTW object initialized with the parsed data.
+     * @throws IOException If a file cannot be read or written.
+     * @throws TOPTWFormatException If the file is not a valid instance; the message gives the line.
+     */
+    public static TOPTW readProblem(String filePath, String distanceFile) throws IOException {
+        return readProblem(filePath, TOPTW.DISTANCE_AUTOMATIC, distanceFile);
+    }
+    
+    /**
+     * @brief Reads a TOPTW problem instance keeping its distances in memory as chosen by the caller.
+     * @param filePath Path to the input file containing the problem definition.
+     * @param distanceMode One of the TOPTW.DISTANCE_* modes.
+     * @return A TOPTW object initialized with the parsed data.
+     * @throws IOException If the file cannot be read.
+     * @throws TOPTWFormatException If the file is not a valid instance; the message gives the line.
      */
-    public static TOPTW readProblem(String filePath) {
-        TOPTW problem = null;
-        try (BufferedReader reader = new BufferedReader(new FileReader(new File(filePath)))) {
-            String line = reader.readLine();
-            line = ExpositoUtilities.simplifyString(line);
-            String[] parts = line.split(" ");
-            problem = new TOPTW(Integer.parseInt(parts[2]), Integer.parseInt(parts[1]));
-            line = reader.readLine();
-            line = null; parts = null;
-            for (int i = 0; i < problem.getPOIs()+1; i++) {
-                line = reader.readLine();
-                line = ExpositoUtilities.simplifyString(line);
-                parts = line.split(" ");
-                problem.setX(i, Double.parseDouble(parts[1]));
-                problem.setY(i, Double.parseDouble(parts[2]));
-                problem.setServiceTime(i, Double.parseDouble(parts[3]));
-                problem.setScore(i, Double.parseDouble(parts[4]));
-                if(i==0) {
-                    problem.setReadyTime(i, Double.parseDouble(parts[7]));
-                    problem.setDueTime(i, Double.parseDouble(parts[8]));
+    public static TOPTW readProblem(String filePath, int distanceMode) throws IOException {
+        return readProblem(filePath, distanceMode, null);
+    }
+    
+    private static TOPTW readProblem(String filePath, int distanceMode, String distanceFile) throws IOException {
+        try (InputStream input = Files.newInputStream(Paths.get(filePath))) {
+            TOPTWTokenizer tokenizer = new TOPTWTokenizer(input, filePath);
+            tokenizer.skip(1);
+            int routes = tokenizer.nextInt();
+            int nodes = tokenizer.nextInt();
+            int days = tokenizer.hasNext() ? tokenizer.nextInt() : 1;
+            if (routes < 1) {
+                throw tokenizer.error("Invalid number of routes: " + routes);
+            }
+            if (nodes < 0) {
+                throw tokenizer.error("Invalid number of nodes: " + nodes);
+            }
+            if (days < 1) {
+                throw tokenizer.error("Invalid number of days: " + days);
+            }
+            tokenizer.nextLine();
+            // Cordeau et al. dan una línea "D Q" por día; las instancias de TOPTW derivadas sólo conservan una
+            double[] dayDuration = new double[days];
+            double[] dayCapacity = new double[days];
+            int dayLines = 0;
+            while (tokenizer.countFields() == 2) {
+                if (dayLines == days) {
+                    throw tokenizer.error("More day lines than the " + days + " days of the header");
+                }
+                dayDuration[dayLines] = tokenizer.nextDouble();
+                dayCapacity[dayLines] = tokenizer.nextDouble();
+                dayLines++;
+                tokenizer.nextLine();
+            }
+            if (dayLines == 0) {
+                throw tokenizer.error("Missing day line");
+            }
+            if (dayLines == 1) {
+                Arrays.fill(dayDuration, dayDuration[0]);
+                Arrays.fill(dayCapacity, dayCapacity[0]);
+            } else if (dayLines != days) {
+                throw tokenizer.error("Expected 1 or " + days + " day lines but found " + dayLines);
+            }
+            double[] x = new double[nodes + 1];
+            double[] y = new double[nodes + 1];
+            double[] serviceTime = new double[nodes + 1];
+            double[] score = new double[nodes + 1];
+            double[] readyTime = new double[nodes + 1];
+            double[] dueTime = new double[nodes + 1];
+            int[] frequency = new int[nodes + 1];
+            int[] offsets = new int[nodes + 2];
+            int[] patterns = new int[nodes + 1];
+            for (int i = 0; i < nodes+1; i++) {
+                tokenizer.skip(1);
+                x[i] = tokenizer.nextDouble();
+                y[i] = tokenizer.nextDouble();
+                serviceTime[i] = tokenizer.nextDouble();
+                score[i] = tokenizer.nextDouble();
+                frequency[i] = tokenizer.nextInt();
+                // La lista de combinaciones de visita tiene tantos campos como indica el anterior
+                int combinations = tokenizer.nextInt();
+                if (combinations < 0) {
+                    throw tokenizer.error("Invalid number of visit combinations: " + combinations);
                 }
-                else {
-                    problem.setReadyTime(i, Double.parseDouble(parts[8]));
-                    problem.setDueTime(i, Double.parseDouble(parts[9]));                    
+                if (offsets[i] + combinations > patterns.length) {
+                    patterns = Arrays.copyOf(patterns, Math.max(2 * patterns.length, offsets[i] + combinations));
                 }
-                line = null; parts = null;
+                for (int c = 0; c < combinations; c++) {
+                    patterns[offsets[i] + c] = tokenizer.nextInt();
+                }
+                offsets[i + 1] = offsets[i] + combinations;
+                readyTime[i] = tokenizer.nextDouble();
+                dueTime[i] = tokenizer.nextDouble();
+                if (i < nodes) {
+                    tokenizer.nextLine();
+                }
+            }
+            TOPTWVisitSchedule schedule = new TOPTWVisitSchedule(dayDuration, dayCapacity, frequency, offsets, patterns);
+            TOPTW problem;
+            if(distanceFile == null) {
+                problem = new TOPTW(nodes, routes, x, y, serviceTime, score, readyTime, dueTime, dueTime[0], distanceMode);
+            } else {
+                TOPTWMappedDistances distances = TOPTWMappedDistances.open(Paths.get(distanceFile), x, y, nodes + 1, routes - 1);
+                problem = new TOPTW(nodes, routes, x, y, serviceTime, score, readyTime, dueTime, dueTime[0], distances);
             }
-            problem.calculateDistanceMatrix();
-        } catch (IOException e) {
-            System.err.println(e);
-            System.exit(0);
+            return problem.withSchedule(schedule);
         }
-        problem.setMaxTimePerRoute(problem.getDueTime(0));
-        return problem;
     }
     
 }
\ No newline at end of file
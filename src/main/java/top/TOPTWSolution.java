@@ -22,6 +22,7 @@ public class TOPTWSolution {
     private int[] positionInRoute;
     
     private int[] routes;
+    private boolean[] depots;
     private int availableVehicles;
     private double objectiveFunctionValue;
     
@@ -37,15 +38,23 @@ public class TOPTWSolution {
         Arrays.fill(this.waitingTime, TOPTWSolution.NO_INITIALIZED);
         Arrays.fill(this.positionInRoute, TOPTWSolution.NO_INITIALIZED);
         this.routes = new int[this.problem.getVehicles()];
+        // El depósito y sus copias son fijos para cada problema, existan ya sus rutas o no
+        this.depots = new boolean[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.depots[0] = true;
+        Arrays.fill(this.depots, this.problem.getPOIs()+1, this.depots.length, true);
         this.objectiveFunctionValue = TOPTWEvaluator.NO_EVALUATED;
     }
     
     public void initSolution() {
-        this.predecessors = new int[this.problem.getPOIs()+this.problem.getVehicles()];
-        this.successors = new int[this.problem.getPOIs()+this.problem.getVehicles()];
+        this.reset();
+    }
+    
+    /**
+     * @brief Empties the solution in place, leaving only the route of depot 0.
+     */
+    public void reset() {
         Arrays.fill(this.predecessors, TOPTWSolution.NO_INITIALIZED);
         Arrays.fill(this.successors, TOPTWSolution.NO_INITIALIZED);
-        this.routes = new int[this.problem.getVehicles()];
         Arrays.fill(this.routes, TOPTWSolution.NO_INITIALIZED);
         this.routes[0] = 0;
         this.predecessors[0] = 0;
@@ -53,13 +62,41 @@ public class TOPTWSolution {
         this.availableVehicles = this.problem.getVehicles() - 1;
     }
     
-    public boolean isDepot(int c) {
-        for(int i = 0; i < this.routes.length; i++) {
-            if(c==this.routes[i]) {
-                return true;
-            }
+    /**
+     * @brief Copies this solution into another solution of the same problem without allocating.
+     * @param target Solution overwritten with the routes of this one.
+     */
+    public void copyInto(TOPTWSolution target) {
+        if(target.problem != this.problem) {
+            throw new IllegalArgumentException("Solutions of different problems");
         }
-        return false;
+        System.arraycopy(this.predecessors, 0, target.predecessors, 0, this.predecessors.length);
+        System.arraycopy(this.successors, 0, target.successors, 0, this.successors.length);
+        System.arraycopy(this.waitingTime, 0, target.waitingTime, 0, this.waitingTime.length);
+        System.arraycopy(this.positionInRoute, 0, target.positionInRoute, 0, this.positionInRoute.length);
+        System.arraycopy(this.routes, 0, target.routes, 0, this.routes.length);
+        target.availableVehicles = this.availableVehicles;
+        target.objectiveFunctionValue = this.objectiveFunctionValue;
+    }
+    
+    /**
+     * @brief Returns an independent copy of this solution.
+     */
+    public TOPTWSolution snapshot() {
+        TOPTWSolution copy = new TOPTWSolution(this.problem);
+        this.copyInto(copy);
+        return copy;
+    }
+    
+    /**
+     * @brief Checks whether a node is the depot or one of its copies.
+     *
+     * Agrees with TOPTW.isDepot for every node of the solution: node 0 and all the depot copies beyond the last
+     * POI are depots, whether their routes have been created or not. The answer comes from an index built with
+     * the solution.
+     */
+    public boolean isDepot(int c) {
+        return this.depots[c];
     }
     
     public boolean equals(TOPTWSolution otherSolution) {
@@ -145,19 +182,21 @@ public class TOPTWSolution {
     
     public String getInfoSolution() {
         final int COLUMN_WIDTH = 15;
-        String text = "\n"+"NODES: " + this.problem.getPOIs() + "\n" + "MAX TIME PER ROUTE: " + this.problem.getMaxTimePerRoute() + "\n" + "MAX NUMBER OF ROUTES: " + this.problem.getMaxRoutes() + "\n";
-        String textSolution = "\n"+"SOLUTION: "+"\n";
+        StringBuilder text = new StringBuilder();
+        text.append("\n").append("NODES: ").append(this.problem.getPOIs()).append("\n").append("MAX TIME PER ROUTE: ").append(this.problem.getMaxTimePerRoute()).append("\n").append("MAX NUMBER OF ROUTES: ").append(this.problem.getMaxRoutes()).append("\n");
+        StringBuilder textSolution = new StringBuilder();
+        textSolution.append("\n").append("SOLUTION: ").append("\n");
         double costTimeSolution = 0.0, fitnessScore = 0.0;
         boolean validSolution = true;
         for(int k = 0; k < this.getCreatedRoutes(); k++) { // rutas creadas
             String[] strings = new String[]{"\n" + "ROUTE " + k };
             int[] width = new int[strings.length];
             Arrays.fill(width, COLUMN_WIDTH);
-            text += ExpositoUtilities.getFormat(strings, width) + "\n";
+            text.append(ExpositoUtilities.getFormat(strings, width)).append("\n");
             strings = new String[]{"CUST NO.", "X COORD.", "Y. COORD.", "READY TIME", "DUE DATE", "ARRIVE TIME", " LEAVE TIME", "SERVICE TIME"};
             width = new int[strings.length];
             Arrays.fill(width, COLUMN_WIDTH);
-            text += ExpositoUtilities.getFormat(strings, width) + "\n";
+            text.append(ExpositoUtilities.getFormat(strings, width)).append("\n");
             strings = new String[strings.length];
             int depot = this.getIndexRoute(k);
             int pre=-1, suc=-1;
@@ -172,12 +211,11 @@ public class TOPTWSolution {
             strings[index++] = "" + 0;
             strings[index++] = "" + 0;
             strings[index++] = "" + this.getProblem().getServiceTime(pre);
-            text += ExpositoUtilities.getFormat(strings, width);
-            text += "\n";
+            text.append(ExpositoUtilities.getFormat(strings, width)).append("\n");
             do {                // recorremos la ruta
                 index = 0;
                 suc = this.getSuccessor(pre);
-                textSolution += pre+" - ";
+                textSolution.append(pre).append(" - ");
                 strings[index++] = "" + suc;
                 strings[index++] = "" + this.getProblem().getX(suc);
                 strings[index++] = "" + this.getProblem().getY(suc);
@@ -196,15 +234,14 @@ public class TOPTWSolution {
                     fitnessScoreRoute += this.problem.getScore(suc);
                 } else { validSolution = false; }                  
                 pre = suc;
-                text += ExpositoUtilities.getFormat(strings, width);
-                text += "\n";
+                text.append(ExpositoUtilities.getFormat(strings, width)).append("\n");
             } while(suc != depot);
-            textSolution += suc+"\n";
+            textSolution.append(suc).append("\n");
             costTimeSolution += costTimeRoute;
             fitnessScore += fitnessScoreRoute;
         }
-        textSolution += "FEASIBLE SOLUTION: "+validSolution+"\n"+"SCORE: "+fitnessScore+"\n"+"TIME COST: "+costTimeSolution+"\n";
-        return textSolution+text;
+        textSolution.append("FEASIBLE SOLUTION: ").append(validSolution).append("\n").append("SCORE: ").append(fitnessScore).append("\n").append("TIME COST: ").append(costTimeSolution).append("\n");
+        return textSolution.append(text).toString();
     }
     
     public double evaluateFitness() {
@@ -239,7 +276,6 @@ public class TOPTWSolution {
         this.availableVehicles--;
         this.predecessors[depot] = depot;
         this.successors[depot] = depot;
-        this.problem.addNodeDepot();
         return depot;
     }
     
@@ -0,0 +1,287 @@
+package top;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @class TOPTWTokenizer
+ * @brief Single-pass reader of the whitespace-separated numbers of an instance file.
+ *
+ * The tokenizer reads the bytes of the file through its own buffer and parses every number directly from them,
+ * without building lines, strings or boxed values. Reading is line oriented: the numbers of a line are read one
+ * after another and nextLine() moves to the next one, skipping whatever is left, so a missing field is reported
+ * on the line it belongs to instead of being taken from the following one. Decimal numbers whose digits fit in
+ * a double exactly are converted with a single multiplication or division by a power of ten, which gives the
+ * correctly rounded result; longer numbers fall back to Double.parseDouble.
+ */
+public class TOPTWTokenizer {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TOKEN_LENGTH = 256;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream input;
+    private final String name;
+    private final byte[] buffer;
+    private final char[] token;
+    private int position;
+    private int limit;
+    private int line;
+
+    /**
+     * @param input Stream with the contents of the file; it is not closed by the tokenizer.
+     * @param name Name of the file, used in the error messages.
+     */
+    public TOPTWTokenizer(InputStream input, String name) {
+        this.input = input;
+        this.name = name;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.token = new char[MAX_TOKEN_LENGTH];
+        this.position = 0;
+        this.limit = 0;
+        this.line = 1;
+    }
+
+    // Devuelve el siguiente byte sin consumirlo, o -1 al final del fichero
+    private int peek() throws IOException {
+        if (this.position == this.limit) {
+            this.limit = this.input.read(this.buffer, 0, this.buffer.length);
+            this.position = 0;
+            if (this.limit <= 0) {
+                this.limit = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.position];
+    }
+
+    // Salta los espacios de la línea actual y devuelve el primer byte distinto, sin consumirlo
+    private int skipSpaces() throws IOException {
+        int c = this.peek();
+        while (c == ' ' || c == '\t' || c == '\r') {
+            this.position++;
+            c = this.peek();
+        }
+        return c;
+    }
+
+    /**
+     * @brief Tells whether the current line has more fields.
+     */
+    public boolean hasNext() throws IOException {
+        int c = this.skipSpaces();
+        return c != '\n' && c != -1;
+    }
+
+    /**
+     * @brief Tells whether the end of the file has been reached, ignoring trailing blank space.
+     */
+    public boolean isEndOfFile() throws IOException {
+        int c = this.skipSpaces();
+        while (c == '\n') {
+            this.position++;
+            this.line++;
+            c = this.skipSpaces();
+        }
+        return c == -1;
+    }
+
+    /**
+     * @brief Skips the rest of the current line.
+     * @throws TOPTWFormatException If the file ends before the line does.
+     */
+    public void nextLine() throws IOException {
+        int c = this.peek();
+        while (c != '\n') {
+            if (c == -1) {
+                throw this.error("Unexpected end of file");
+            }
+            this.position++;
+            c = this.peek();
+        }
+        this.position++;
+        this.line++;
+    }
+
+    /**
+     * @brief Counts the fields left in the current line without consuming them.
+     * @throws TOPTWFormatException If the line does not fit in the buffer.
+     *
+     * The rest of the line is brought into the buffer if needed, so a reader can look at the shape of a line before
+     * deciding how to parse it.
+     */
+    public int countFields() throws IOException {
+        int end = this.position;
+        while (true) {
+            while (end < this.limit && this.buffer[end] != '\n') {
+                end++;
+            }
+            if (end < this.limit) {
+                break;
+            }
+            // La línea sigue fuera del buffer: se mueve al principio y se lee el resto
+            if (this.position > 0) {
+                System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+                end -= this.position;
+                this.limit -= this.position;
+                this.position = 0;
+            }
+            if (this.limit == this.buffer.length) {
+                throw this.error("Line too long");
+            }
+            int read = this.input.read(this.buffer, this.limit, this.buffer.length - this.limit);
+            if (read <= 0) {
+                break;
+            }
+            this.limit += read;
+        }
+        int fields = 0;
+        boolean inField = false;
+        for (int i = this.position; i < end; i++) {
+            byte c = this.buffer[i];
+            boolean space = c == ' ' || c == '\t' || c == '\r';
+            if (!space && !inField) {
+                fields++;
+            }
+            inField = !space;
+        }
+        return fields;
+    }
+
+    /**
+     * @brief Skips a number of fields of the current line.
+     */
+    public void skip(int fields) throws IOException {
+        for (int i = 0; i < fields; i++) {
+            this.readToken();
+        }
+    }
+
+    /**
+     * @brief Reads the next field of the current line as an integer.
+     * @throws TOPTWFormatException If the line has no more fields or the field is not an integer.
+     */
+    public int nextInt() throws IOException {
+        int length = this.readToken();
+        int start = this.token[0] == '-' || this.token[0] == '+' ? 1 : 0;
+        if (start == length) {
+            throw this.invalid("integer", length);
+        }
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            int digit = this.token[i] - '0';
+            if (digit < 0 || digit > 9 || (value = value * 10 + digit) > Integer.MAX_VALUE + 1L) {
+                throw this.invalid("integer", length);
+            }
+        }
+        if (this.token[0] == '-') {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw this.invalid("integer", length);
+        }
+        return (int)value;
+    }
+
+    /**
+     * @brief Reads the next field of the current line as a decimal number.
+     * @throws TOPTWFormatException If the line has no more fields or the field is not a number.
+     */
+    public double nextDouble() throws IOException {
+        int length = this.readToken();
+        int i = 0;
+        boolean negative = this.token[0] == '-';
+        if (negative || this.token[0] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean exact = true;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < length; i++) {
+            char c = this.token[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && c == '0') {
+                    // Los ceros a la izquierda no cuentan como dígitos significativos
+                    if (seenPoint) {
+                        exponent--;
+                    }
+                } else if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (seenPoint) {
+                        exponent--;
+                    }
+                } else {
+                    exact = false;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit) {
+            throw this.invalid("number", length);
+        }
+        if (i < length) {
+            if (this.token[i] != 'e' && this.token[i] != 'E') {
+                throw this.invalid("number", length);
+            }
+            // Los exponentes no son habituales en las instancias: se delega el caso completo
+            exact = false;
+        }
+        if (exact && mantissa < MAX_EXACT_MANTISSA && exponent >= -22) {
+            // Camino rápido de Clinger: la mantisa y la potencia de diez son exactas en double
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa;
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(this.token, 0, length));
+        } catch (NumberFormatException e) {
+            throw this.invalid("number", length);
+        }
+    }
+
+    // Copia el siguiente campo de la línea en token y devuelve su longitud
+    private int readToken() throws IOException {
+        int c = this.skipSpaces();
+        if (c == '\n' || c == -1) {
+            throw this.error("Missing field");
+        }
+        int length = 0;
+        while (c != ' ' && c != '\t' && c != '\r' && c != '\n' && c != -1) {
+            if (length == MAX_TOKEN_LENGTH) {
+                throw this.error("Field too long");
+            }
+            this.token[length++] = (char)(c & 0xFF);
+            this.position++;
+            c = this.peek();
+        }
+        return length;
+    }
+
+    private TOPTWFormatException invalid(String expected, int length) {
+        return this.error("Invalid " + expected + " '" + new String(this.token, 0, length) + "'");
+    }
+
+    /**
+     * @brief Builds an exception that points at the current line.
+     */
+    public TOPTWFormatException error(String message) {
+        return new TOPTWFormatException(this.name, this.line, message);
+    }
+
+    /**
+     * @brief Number of the current line, starting at 1.
+     */
+    public int getLine() {
+        return this.line;
+    }
+}
@@ -0,0 +1,67 @@
+package top;
+
+import java.util.Arrays;
+
+/**
+ * @class TOPTWVisitSchedule
+ * @brief Multi-day data of an instance in the format of Cordeau et al. for periodic routing problems.
+ *
+ * The planning horizon has a number of days, each with a maximum route duration and a vehicle capacity. Every
+ * node has a visit frequency and the list of visit combinations it accepts, each one a decimal code of the set of
+ * days on which the node is visited, as they appear in the file. The combinations of all the nodes are stored back
+ * to back in a single array indexed by node. The orienteering solver works on a single day and ignores this data;
+ * it is kept so the periodic instances can be read without losing information.
+ */
+public class TOPTWVisitSchedule {
+    private final double[] dayDuration;
+    private final double[] dayCapacity;
+    private final int[] frequency;
+    private final int[] offsets;
+    private final int[] patterns;
+
+    /**
+     * @param dayDuration Maximum duration of a route on each day; copied.
+     * @param dayCapacity Capacity of a vehicle on each day; copied.
+     * @param frequency Number of visits required by each node, the depot first; copied.
+     * @param offsets Index in patterns of the first combination of each node, with one extra entry marking the end
+     * of the last node; copied.
+     * @param patterns Visit combinations of all the nodes; copied.
+     */
+    public TOPTWVisitSchedule(double[] dayDuration, double[] dayCapacity, int[] frequency, int[] offsets,
+            int[] patterns) {
+        this.dayDuration = Arrays.copyOf(dayDuration, dayDuration.length);
+        this.dayCapacity = Arrays.copyOf(dayCapacity, dayCapacity.length);
+        this.frequency = Arrays.copyOf(frequency, frequency.length);
+        this.offsets = Arrays.copyOf(offsets, frequency.length + 1);
+        this.patterns = Arrays.copyOf(patterns, this.offsets[frequency.length]);
+    }
+
+    public int getDays() {
+        return this.dayDuration.length;
+    }
+
+    public double getDayDuration(int day) {
+        return this.dayDuration[day];
+    }
+
+    public double getDayCapacity(int day) {
+        return this.dayCapacity[day];
+    }
+
+    public int getFrequency(int node) {
+        return this.frequency[node];
+    }
+
+    public int getPatternCount(int node) {
+        return this.offsets[node + 1] - this.offsets[node];
+    }
+
+    /**
+     * @brief Returns one of the visit combinations accepted by a node.
+     * @param node Index of the node, the depot being 0.
+     * @param index Position of the combination in the list of the node.
+     */
+    public int getPattern(int node, int index) {
+        return this.patterns[this.offsets[node] + index];
+    }
+}
@@ -1,5 +1,7 @@
 package top;
 
+import java.io.IOException;
+
 /**
  * @class TOPTW
  * @brief Represents a Team Orienteering Problem with Time Windows (TOPTW) instance.
@@ -14,7 +16,7 @@ package top;
  */
 public class mainTOPTW {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         
         String[] instances = new String[29];
         
@@ -36,6 +38,7 @@ public class mainTOPTW {
             TOPTW problem = TOPTWReader.readProblem(INSTANCE);
             TOPTWSolution solution = new TOPTWSolution(problem);
             TOPTWGRASP grasp = new TOPTWGRASP(solution);
+            grasp.setObserver(TOPTWGRASPObserver.summary(System.out));
 
             System.out.println(" --> Instance: "+instances[i]);
             grasp.GRASP(10000, 3);
@@ -0,0 +1,87 @@
+package es.ull.esit.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class KDTreeTest
+ * @brief Compares the queries of the KD-tree with a brute-force scan of the same points.
+ *
+ * The points lie on an integer grid so that many of them are at the same distance of a query, which exercises the
+ * ties between subtrees.
+ */
+public class KDTreeTest {
+    private static final int POINTS = 3000;
+    private static final int QUERIES = 500;
+    private static final int K = 12;
+    private static final double SIDE = 100.0;
+
+    private final Random random = new Random(3);
+    private final double[] x = new double[POINTS];
+    private final double[] y = new double[POINTS];
+
+    public KDTreeTest() {
+        for (int i = 0; i < POINTS; i++) {
+            this.x[i] = Math.floor(this.random.nextDouble() * SIDE);
+            this.y[i] = Math.floor(this.random.nextDouble() * SIDE);
+        }
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        KDTree tree = new KDTree(this.x, this.y);
+        int[] result = new int[K];
+        for (int q = 0; q < QUERIES; q++) {
+            double qx = this.random.nextDouble() * SIDE;
+            double qy = this.random.nextDouble() * SIDE;
+            int excluded = q % 7;
+            int found = tree.nearest(qx, qy, K, j -> j % 7 != excluded, result);
+            double[] expected = IntStream.range(0, POINTS).filter(j -> j % 7 != excluded)
+                    .mapToDouble(j -> this.squaredDistance(j, qx, qy)).sorted().limit(K).toArray();
+            assertEquals(expected.length, found);
+            for (int i = 0; i < found; i++) {
+                assertEquals(expected[i], this.squaredDistance(result[i], qx, qy), "Query " + q + ", neighbour " + i);
+                assertTrue(result[i] % 7 != excluded, "Query " + q + " returned a filtered point");
+            }
+        }
+    }
+
+    @Test
+    public void nearestReturnsFewerPointsWhenFilterRejectsMost() {
+        KDTree tree = new KDTree(this.x, this.y);
+        int[] result = new int[K];
+        int found = tree.nearest(SIDE / 2, SIDE / 2, K, j -> j < 5, result);
+        assertEquals(5, found);
+        int[] points = Arrays.copyOf(result, found);
+        Arrays.sort(points);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4}, points);
+    }
+
+    @Test
+    public void withinRadiusMatchesBruteForce() {
+        KDTree tree = new KDTree(this.x, this.y);
+        for (int q = 0; q < QUERIES; q++) {
+            double qx = this.random.nextDouble() * SIDE;
+            double qy = this.random.nextDouble() * SIDE;
+            double radius = this.random.nextDouble() * 15.0;
+            IntStream.Builder visited = IntStream.builder();
+            tree.withinRadius(qx, qy, radius, visited::add);
+            int[] expected = IntStream.range(0, POINTS)
+                    .filter(j -> this.squaredDistance(j, qx, qy) <= radius * radius).toArray();
+            assertArrayEquals(expected, visited.build().sorted().toArray(), "Query " + q);
+        }
+    }
+
+    private double squaredDistance(int point, double qx, double qy) {
+        double dx = this.x[point] - qx;
+        double dy = this.y[point] - qy;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,122 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @class TOPTWBatchRunnerTest
+ * @brief Tests of the batch runner: order and values of the results, failed jobs and CSV output.
+ */
+public class TOPTWBatchRunnerTest {
+    private static final int[] RCL_SIZES = {3, 5};
+    private static final int ITERATIONS = 20;
+    private static final long[] SEEDS = {1L, 2L};
+    private static final int THREADS = 3;
+
+    @TempDir
+    Path directory;
+
+    private List<Path> instances() throws IOException {
+        for (String name : new String[] {"r101.txt", "c101.txt"}) {
+            Files.copy(Paths.get("Instances", "TOPTW", name), this.directory.resolve(name));
+        }
+        Files.write(this.directory.resolve("broken.txt"), "4 x\n".getBytes(StandardCharsets.US_ASCII));
+        return TOPTWBatchRunner.findInstances(this.directory.toString());
+    }
+
+    private static TOPTWBatchRunner runner() {
+        TOPTWBatchRunner runner = new TOPTWBatchRunner();
+        runner.setRCLSizes(RCL_SIZES);
+        runner.setIterations(ITERATIONS);
+        runner.setSeeds(SEEDS);
+        runner.setThreads(THREADS);
+        return runner;
+    }
+
+    @Test
+    public void resultsFollowTheGridAndMatchSequentialRuns() throws IOException {
+        List<Path> instances = this.instances();
+        List<TOPTWBatchResult> results = runner().run(instances);
+        assertEquals(instances.size() * RCL_SIZES.length * SEEDS.length, results.size());
+        int index = 0;
+        for (Path file : instances) {
+            TOPTW problem = file.endsWith("broken.txt") ? null : TOPTWReader.readProblem(file.toString());
+            for (int rcl : RCL_SIZES) {
+                for (long seed : SEEDS) {
+                    TOPTWBatchResult result = results.get(index++);
+                    assertEquals(file.getFileName().toString(), result.getInstance());
+                    assertEquals(rcl, result.getMaxSizeRCL());
+                    assertEquals(ITERATIONS, result.getMaxIterations());
+                    assertEquals(seed, result.getSeed());
+                    if (problem == null) {
+                        assertNull(result.getResult());
+                        assertNotNull(result.getError());
+                        continue;
+                    }
+                    assertNull(result.getError());
+                    TOPTWGRASP grasp = new TOPTWGRASP(new TOPTWSolution(problem), seed);
+                    TOPTWGRASPResult expected = grasp.GRASP(ITERATIONS, rcl);
+                    assertEquals(expected.getBestFitness(), result.getResult().getBestFitness());
+                    assertEquals(expected.getAverageFitness(), result.getResult().getAverageFitness());
+                    assertEquals(expected.getBestIteration(), result.getResult().getBestIteration());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void csvHasHeaderAndOneRowPerJob() throws IOException {
+        List<TOPTWBatchResult> results = runner().run(this.instances());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true, "UTF-8")) {
+            TOPTWBatchRunner.writeCSV(results, out);
+        }
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\\R");
+        assertEquals(results.size() + 1, lines.length);
+        assertEquals(TOPTWBatchResult.CSV_HEADER, lines[0]);
+        int columns = TOPTWBatchResult.CSV_HEADER.split(",").length;
+        for (int i = 1; i < lines.length; i++) {
+            TOPTWBatchResult result = results.get(i - 1);
+            assertTrue(lines[i].startsWith(result.getInstance() + "," + result.getMaxSizeRCL() + "," + ITERATIONS
+                    + "," + result.getSeed() + ","), lines[i]);
+            if (result.getResult() != null) {
+                String[] fields = lines[i].split(",", -1);
+                assertEquals(columns, fields.length, lines[i]);
+                assertEquals(result.getResult().getBestFitness(), Double.parseDouble(fields[4]));
+                assertEquals("", fields[columns - 1]);
+            } else {
+                assertTrue(lines[i].contains(",,,,"), lines[i]);
+            }
+        }
+    }
+
+    @Test
+    public void findInstancesAcceptsDirectoryFileAndGlob() throws IOException {
+        this.instances();
+        assertEquals(Arrays.asList("broken.txt", "c101.txt", "r101.txt"),
+                names(TOPTWBatchRunner.findInstances(this.directory.toString())));
+        assertEquals(Arrays.asList("c101.txt"),
+                names(TOPTWBatchRunner.findInstances(this.directory.resolve("c101.txt").toString())));
+        assertEquals(Arrays.asList("c101.txt", "r101.txt"),
+                names(TOPTWBatchRunner.findInstances(this.directory.resolve("*1.txt").toString())));
+    }
+
+    private static List<String> names(List<Path> files) {
+        return Arrays.asList(files.stream().map(file -> file.getFileName().toString()).toArray(String[]::new));
+    }
+}
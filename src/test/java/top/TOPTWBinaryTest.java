@@ -0,0 +1,106 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @class TOPTWBinaryTest
+ * @brief Tests of the binary instance format: round trip, checksum verification and cache refresh.
+ */
+public class TOPTWBinaryTest {
+    private static final String INSTANCE = Paths.get("Instances", "PVRPTW", "pr01").toString();
+    private static final int CHECKSUM_OFFSET = 40;
+    private static final int NODE_DATA_OFFSET = 64;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void readGivesBackTheTextInstance(boolean includeMatrix) throws IOException {
+        TOPTW text = TOPTWReader.readProblem(INSTANCE);
+        String binary = this.directory.resolve("pr01.bin").toString();
+        TOPTWBinary.convert(INSTANCE, binary, includeMatrix);
+        assertSameInstance(text, TOPTWBinary.read(binary));
+    }
+
+    @Test
+    public void readRejectsCorruptedNodeData() throws IOException {
+        Path binary = this.directory.resolve("pr01.bin");
+        TOPTWBinary.convert(INSTANCE, binary.toString(), true);
+        byte[] bytes = Files.readAllBytes(binary);
+        bytes[NODE_DATA_OFFSET + 8] ^= 1;
+        Files.write(binary, bytes);
+        TOPTWFormatException e = assertThrows(TOPTWFormatException.class, () -> TOPTWBinary.read(binary.toString()));
+        assertTrue(e.getMessage().contains("Checksum"), e.getMessage());
+    }
+
+    @Test
+    public void readRejectsCorruptedChecksum() throws IOException {
+        Path binary = this.directory.resolve("pr01.bin");
+        TOPTWBinary.convert(INSTANCE, binary.toString(), false);
+        byte[] bytes = Files.readAllBytes(binary);
+        bytes[CHECKSUM_OFFSET] ^= 1;
+        Files.write(binary, bytes);
+        assertThrows(TOPTWFormatException.class, () -> TOPTWBinary.read(binary.toString()));
+    }
+
+    @Test
+    public void loadRewritesCorruptedCache() throws IOException {
+        TOPTW text = TOPTWReader.readProblem(INSTANCE);
+        Path binary = this.directory.resolve("pr01.bin");
+        TOPTWBinary.load(INSTANCE, binary.toString(), false);
+        byte[] bytes = Files.readAllBytes(binary);
+        bytes[NODE_DATA_OFFSET + 8] ^= 1;
+        Files.write(binary, bytes);
+        assertSameInstance(text, TOPTWBinary.load(INSTANCE, binary.toString(), false));
+        assertSameInstance(text, TOPTWBinary.read(binary.toString()));
+    }
+
+    private static void assertSameInstance(TOPTW expected, TOPTW actual) {
+        assertEquals(expected.getPOIs(), actual.getPOIs());
+        assertEquals(expected.getVehicles(), actual.getVehicles());
+        assertEquals(expected.getMaxTimePerRoute(), actual.getMaxTimePerRoute());
+        for (int i = 0; i <= expected.getPOIs(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i));
+            assertEquals(expected.getY(i), actual.getY(i));
+            assertEquals(expected.getServiceTime(i), actual.getServiceTime(i));
+            assertEquals(expected.getScore(i), actual.getScore(i));
+            assertEquals(expected.getReadyTime(i), actual.getReadyTime(i));
+            assertEquals(expected.getDueTime(i), actual.getDueTime(i));
+        }
+        int nodes = expected.getPOIs() + expected.getVehicles();
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                assertEquals(expected.getDistance(i, j), actual.getDistance(i, j));
+            }
+        }
+        TOPTWVisitSchedule schedule = expected.getSchedule();
+        TOPTWVisitSchedule other = actual.getSchedule();
+        assertNotNull(other);
+        assertEquals(schedule.getDays(), other.getDays());
+        for (int d = 0; d < schedule.getDays(); d++) {
+            assertEquals(schedule.getDayDuration(d), other.getDayDuration(d));
+            assertEquals(schedule.getDayCapacity(d), other.getDayCapacity(d));
+        }
+        for (int i = 0; i <= expected.getPOIs(); i++) {
+            assertEquals(schedule.getFrequency(i), other.getFrequency(i));
+            assertEquals(schedule.getPatternCount(i), other.getPatternCount(i));
+            for (int c = 0; c < schedule.getPatternCount(i); c++) {
+                assertEquals(schedule.getPattern(i, c), other.getPattern(i, c));
+            }
+        }
+    }
+}
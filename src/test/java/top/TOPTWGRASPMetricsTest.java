@@ -0,0 +1,96 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class TOPTWGRASPMetricsTest
+ * @brief Tests that the solver metrics count the work actually done, also when it is split between threads.
+ */
+public class TOPTWGRASPMetricsTest {
+    private static final int ITERATIONS = 30;
+    private static final int MAX_SIZE_RCL = 3;
+    private static final int THREADS = 4;
+    private static final long SEED = 7L;
+
+    // Cuenta las inserciones de la construcción, una por cada selección de la RCL
+    private static class CountingGRASP extends TOPTWGRASP {
+        private long insertions;
+
+        CountingGRASP(TOPTWSolution solution) {
+            super(solution, SEED);
+        }
+
+        @Override
+        public void updateSolution(int customer, int routeIndex, int predecessor) {
+            this.insertions++;
+            super.updateSolution(customer, routeIndex, predecessor);
+        }
+    }
+
+    @Test
+    public void countsMatchTheWorkDone() throws IOException {
+        CountingGRASP grasp = new CountingGRASP(new TOPTWSolution(TOPTWGRASPTest.readInstance("c101")));
+        TOPTWGRASPResult result = grasp.GRASP(ITERATIONS, MAX_SIZE_RCL);
+        TOPTWGRASPMetricsSnapshot metrics = grasp.getMetrics().snapshot();
+        assertEquals(1, metrics.getRuns());
+        assertEquals(result.getIterations(), metrics.getConstructions());
+        assertEquals(grasp.insertions, metrics.getSelections());
+        assertTrue(metrics.getEvaluations() > metrics.getSelections());
+        assertEquals(metrics.getRejectedByDueTime() + metrics.getRejectedByMaxTime()
+                + metrics.getRejectedDownstream(), metrics.getRejections());
+        assertTrue(metrics.getRejections() < metrics.getEvaluations());
+        long sizes = 0;
+        for (int size = 0; size < metrics.getRCLSizeBuckets(); size++) {
+            if (size == 0 || size > MAX_SIZE_RCL) {
+                assertEquals(0, metrics.getRCLSizeCount(size), "RCL size " + size);
+            }
+            sizes += metrics.getRCLSizeCount(size);
+        }
+        assertEquals(metrics.getSelections(), sizes);
+        assertTrue(metrics.getImprovements() > 0);
+        for (int i = 1; i < metrics.getImprovements(); i++) {
+            assertTrue(metrics.getImprovementScore(i) > metrics.getImprovementScore(i - 1));
+        }
+        assertEquals(result.getBestFitness(), metrics.getImprovementScore(metrics.getImprovements() - 1));
+    }
+
+    @Test
+    public void parallelRunCountsTheSameWork() throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance("r101");
+        TOPTWGRASP sequential = new TOPTWGRASP(new TOPTWSolution(problem), SEED);
+        sequential.GRASP(ITERATIONS, MAX_SIZE_RCL);
+        TOPTWGRASP parallel = new TOPTWGRASP(new TOPTWSolution(problem), SEED);
+        parallel.GRASP(ITERATIONS, MAX_SIZE_RCL, THREADS);
+        TOPTWGRASPMetricsSnapshot expected = sequential.getMetrics().snapshot();
+        TOPTWGRASPMetricsSnapshot actual = parallel.getMetrics().snapshot();
+        assertEquals(expected.getRuns(), actual.getRuns());
+        assertEquals(expected.getConstructions(), actual.getConstructions());
+        assertEquals(expected.getEvaluations(), actual.getEvaluations());
+        assertEquals(expected.getRejectedByDueTime(), actual.getRejectedByDueTime());
+        assertEquals(expected.getRejectedByMaxTime(), actual.getRejectedByMaxTime());
+        assertEquals(expected.getRejectedDownstream(), actual.getRejectedDownstream());
+        assertEquals(expected.getSelections(), actual.getSelections());
+        for (int size = 0; size < expected.getRCLSizeBuckets(); size++) {
+            assertEquals(expected.getRCLSizeCount(size), actual.getRCLSizeCount(size), "RCL size " + size);
+        }
+    }
+
+    @Test
+    public void resetClearsEveryCount() throws IOException {
+        TOPTWGRASP grasp = new TOPTWGRASP(new TOPTWSolution(TOPTWGRASPTest.readInstance("c101")), SEED);
+        grasp.GRASP(ITERATIONS, MAX_SIZE_RCL);
+        grasp.getMetrics().reset();
+        TOPTWGRASPMetricsSnapshot metrics = grasp.getMetrics().snapshot();
+        assertEquals(0, metrics.getRuns());
+        assertEquals(0, metrics.getConstructions());
+        assertEquals(0, metrics.getEvaluations());
+        assertEquals(0, metrics.getRejections());
+        assertEquals(0, metrics.getSelections());
+        assertEquals(0, metrics.getImprovements());
+    }
+}
@@ -0,0 +1,208 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @class TOPTWGRASPTest
+ * @brief Tests of the GRASP construction against a direct simulation of the routes, and of the reproducibility
+ * of seeded runs.
+ */
+public class TOPTWGRASPTest {
+    private static final int SEEDS = 20;
+    private static final int CHECKED_SEEDS = 5;
+    private static final int MAX_SIZE_RCL = 3;
+    private static final int ITERATIONS = 40;
+    private static final int THREADS = 4;
+    private static final long SEED = 123L;
+
+    static TOPTW readInstance(String name) throws IOException {
+        return TOPTWReader.readProblem(Paths.get("Instances", "TOPTW", name + ".txt").toString());
+    }
+
+    /**
+     * The constant-time slack check must accept exactly the insertions a full walk of the route accepts: every
+     * insertion it made leaves feasible routes, and once the construction stops no unrouted POI fits anywhere.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"c101", "r101", "rc101", "r108", "pr01"})
+    public void slackCheckAgreesWithRouteWalk(String name) throws IOException {
+        TOPTW problem = readInstance(name);
+        TOPTWSolution solution = new TOPTWSolution(problem);
+        TOPTWGRASP grasp = new TOPTWGRASP(solution, 0L);
+        grasp.setNeighbourhoodSize(TOPTWGRASP.FULL_NEIGHBOURHOOD);
+        for (int seed = 0; seed < SEEDS; seed++) {
+            grasp.setSeed(seed);
+            grasp.computeGreedySolution(MAX_SIZE_RCL);
+            for (int k = 0; k < solution.getCreatedRoutes(); k++) {
+                int depot = solution.getIndexRoute(k);
+                assertTrue(walk(solution, depot, TOPTWSolution.NO_INITIALIZED, TOPTWSolution.NO_INITIALIZED),
+                        name + ", seed " + seed + ": route " + k + " is infeasible");
+            }
+            for (int c = 1; c <= problem.getPOIs(); c++) {
+                if (solution.getPredecessor(c) != TOPTWSolution.NO_INITIALIZED) {
+                    continue;
+                }
+                for (int k = 0; k < solution.getCreatedRoutes(); k++) {
+                    int depot = solution.getIndexRoute(k);
+                    int p = depot;
+                    do {
+                        assertFalse(walk(solution, depot, c, p),
+                                name + ", seed " + seed + ": POI " + c + " fits after node " + p);
+                        p = solution.getSuccessor(p);
+                    } while (p != depot);
+                }
+            }
+        }
+    }
+
+    /**
+     * The per-route insertion cache must lead to the same choice as evaluating every unrouted POI on every route
+     * again: at each step the insertion made is as cheap as the best one of its POI, in the same route, and the POI
+     * is among the MAX_SIZE_RCL cheapest.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"c101", "r101", "rc101", "pr01"})
+    public void insertionCacheMatchesFullEvaluation(String name) throws IOException {
+        TOPTW problem = readInstance(name);
+        CheckedGRASP grasp = new CheckedGRASP(new TOPTWSolution(problem), name);
+        for (int seed = 0; seed < CHECKED_SEEDS; seed++) {
+            grasp.setSeed(seed);
+            grasp.computeGreedySolution(MAX_SIZE_RCL);
+        }
+        assertTrue(grasp.steps > 0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void parallelRunMatchesSequentialRun(boolean localSearch) throws IOException {
+        TOPTW problem = readInstance("c101");
+        TOPTWGRASPResult sequential = solver(problem, localSearch).GRASP(ITERATIONS, MAX_SIZE_RCL);
+        TOPTWGRASPResult parallel = solver(problem, localSearch).GRASP(ITERATIONS, MAX_SIZE_RCL, THREADS);
+        assertEquals(sequential.getIterations(), parallel.getIterations());
+        assertEquals(sequential.getBestFitness(), parallel.getBestFitness());
+        assertEquals(sequential.getAverageFitness(), parallel.getAverageFitness());
+        assertEquals(sequential.getBestIteration(), parallel.getBestIteration());
+        assertTrue(sequential.getBestSolution().equals(parallel.getBestSolution()));
+    }
+
+    @Test
+    public void replayIterationRebuildsBestSolution() throws IOException {
+        TOPTW problem = readInstance("r101");
+        TOPTWGRASPResult result = solver(problem, false).GRASP(ITERATIONS, MAX_SIZE_RCL, THREADS);
+        TOPTWGRASP replay = solver(problem, false);
+        assertEquals(result.getBestFitness(), replay.replayIteration(result.getBestIteration(), MAX_SIZE_RCL));
+        assertTrue(result.getBestSolution().equals(replay.getSolution()));
+    }
+
+    private static TOPTWGRASP solver(TOPTW problem, boolean localSearch) {
+        TOPTWGRASP grasp = new TOPTWGRASP(new TOPTWSolution(problem), SEED);
+        grasp.setLocalSearchEnabled(localSearch);
+        return grasp;
+    }
+
+    // Comprueba cada inserción de la construcción contra una evaluación completa hecha recorriendo las rutas
+    static class CheckedGRASP extends TOPTWGRASP {
+        private final String name;
+        int steps;
+
+        CheckedGRASP(TOPTWSolution solution, String name) {
+            super(solution, 0L);
+            this.name = name;
+        }
+
+        @Override
+        public void updateSolution(int customer, int routeIndex, int predecessor) {
+            TOPTWSolution solution = this.getSolution();
+            String context = this.name + ", seed " + this.getSeed() + ", step " + this.steps++;
+            double[] best = bestInsertion(solution, customer);
+            assertEquals(best[0], routeIndex, context + ": route of POI " + customer);
+            assertEquals(best[1], insertionCost(solution, solution.getIndexRoute(routeIndex), customer, predecessor),
+                    context + ": cost of POI " + customer);
+            int cheaper = 0;
+            for (int c = 1; c <= solution.getProblem().getPOIs(); c++) {
+                boolean unrouted = solution.getPredecessor(c) == TOPTWSolution.NO_INITIALIZED;
+                if (unrouted && bestInsertion(solution, c)[1] < best[1]) {
+                    cheaper++;
+                }
+            }
+            assertTrue(cheaper < MAX_SIZE_RCL, context + ": " + cheaper + " POIs are cheaper than " + customer);
+            super.updateSolution(customer, routeIndex, predecessor);
+        }
+    }
+
+    // Mejor inserción {ruta, coste} del candidato: primera ruta de menor coste
+    private static double[] bestInsertion(TOPTWSolution solution, int candidate) {
+        double[] best = {TOPTWSolution.NO_INITIALIZED, Double.POSITIVE_INFINITY};
+        for (int k = 0; k < solution.getCreatedRoutes(); k++) {
+            int depot = solution.getIndexRoute(k);
+            int pre = depot;
+            do {
+                double cost = insertionCost(solution, depot, candidate, pre);
+                if (cost < best[1]) {
+                    best = new double[] {k, cost};
+                }
+                pre = solution.getSuccessor(pre);
+            } while (pre != depot);
+        }
+        return best;
+    }
+
+    // Salida del sucesor al insertar candidate tras pre, o infinito si la ruta deja de ser factible
+    private static double insertionCost(TOPTWSolution solution, int depot, int candidate, int pre) {
+        TOPTW problem = solution.getProblem();
+        double departure = 0.0;
+        double cost = Double.POSITIVE_INFINITY;
+        int node = depot;
+        do {
+            int next = node == pre ? candidate : solution.getSuccessor(node);
+            if (node == candidate) {
+                next = solution.getSuccessor(pre);
+            }
+            double arrival = departure + problem.getDistance(node, next);
+            if (arrival >= problem.getDueTime(next)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            departure = Math.max(arrival, problem.getReadyTime(next)) + problem.getServiceTime(next);
+            if (departure > problem.getMaxTimePerRoute()) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (node == candidate) {
+                cost = departure;
+            }
+            node = next;
+        } while (node != depot);
+        return cost;
+    }
+
+    // Recorre la ruta del depósito depot, insertando candidate tras pre si candidate no es NO_INITIALIZED
+    static boolean walk(TOPTWSolution solution, int depot, int candidate, int pre) {
+        TOPTW problem = solution.getProblem();
+        double departure = 0.0;
+        int node = depot;
+        do {
+            int next = node == pre ? candidate : solution.getSuccessor(node);
+            if (node == candidate) {
+                next = solution.getSuccessor(pre);
+            }
+            double arrival = departure + problem.getDistance(node, next);
+            if (arrival >= problem.getDueTime(next)) {
+                return false;
+            }
+            departure = Math.max(arrival, problem.getReadyTime(next)) + problem.getServiceTime(next);
+            if (departure > problem.getMaxTimePerRoute()) {
+                return false;
+            }
+            node = next;
+        } while (node != depot);
+        return true;
+    }
+}
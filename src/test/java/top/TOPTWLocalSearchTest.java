@@ -0,0 +1,184 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @class TOPTWLocalSearchTest
+ * @brief Tests of the local search on constructed solutions and on small instances built by hand.
+ *
+ * In the hand-built instances the last POI lies too far from the depot to ever fit, so the search always has an
+ * unrouted POI left and runs its shortening moves; the routes are chosen so that only one kind of move improves
+ * them.
+ */
+public class TOPTWLocalSearchTest {
+    private static final int SEEDS = 10;
+    private static final int MAX_SIZE_RCL = 3;
+    private static final double FAR = 1000.0;
+    private static final double EPSILON = 1e-9;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"c101", "r101", "rc101", "r108", "pr01"})
+    public void improveKeepsRoutesFeasibleAndNeverLowersScore(String name) throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance(name);
+        TOPTWSolution solution = new TOPTWSolution(problem);
+        TOPTWGRASP grasp = new TOPTWGRASP(solution, 0L);
+        TOPTWLocalSearch localSearch = new TOPTWLocalSearch(problem);
+        for (int seed = 0; seed < SEEDS; seed++) {
+            grasp.setSeed(seed);
+            grasp.computeGreedySolution(MAX_SIZE_RCL);
+            double constructed = solution.evaluateFitness();
+            localSearch.improve(solution);
+            String context = name + ", seed " + seed;
+            assertTrue(solution.evaluateFitness() >= constructed, context + ": the score went down");
+            assertRoutesAreValid(solution, context);
+        }
+    }
+
+    @Test
+    public void insertionPrefersHighestScoreWhenOnlyOnePOIFits() {
+        // Solo queda tiempo para uno de los dos POIs junto al depósito
+        TOPTW problem = instance(1, 0.0, 36.0, new double[][] {{0, 10, 1}, {10, 0, 5}, {-10, 0, 3}, {FAR, FAR, 1}});
+        TOPTWSolution solution = solution(problem, new int[] {1});
+        assertEquals(1, new TOPTWLocalSearch(problem).improve(solution));
+        List<Integer> route = route(solution, 0);
+        route.sort(null);
+        assertEquals(Arrays.asList(1, 2), route);
+        assertEquals(6.0, solution.evaluateFitness());
+        assertRoutesAreValid(solution, "insertion");
+    }
+
+    @Test
+    public void relocateEmptiesShortRoute() {
+        // Llevar 1 a la segunda ruta, delante de 2, no alarga esa ruta y ahorra toda la primera
+        TOPTW problem = instance(2, 0.0, 100.0, new double[][] {{0, 10, 1}, {0, 11, 1}, {20, 0, 1}, {FAR, FAR, 1}});
+        TOPTWSolution solution = solution(problem, new int[] {1}, new int[] {2, 3});
+        assertTrue(new TOPTWLocalSearch(problem).improve(solution) > 0);
+        assertEquals(Arrays.asList(), route(solution, 0));
+        assertEquals(Arrays.asList(1, 2, 3), route(solution, 1));
+        assertRoutesAreValid(solution, "relocate");
+    }
+
+    @Test
+    public void swapExchangesPOIsBetweenFullRoutes() {
+        // Con 10 de servicio no caben tres POIs en una ruta, así que solo el intercambio mejora
+        TOPTW problem = instance(2, 10.0, 80.0, new double[][] {{0, 10, 1}, {0, 12, 1}, {20, 10, 1}, {20, 12, 1},
+                {FAR, FAR, 1}});
+        TOPTWSolution solution = solution(problem, new int[] {1, 4}, new int[] {3, 2});
+        assertTrue(new TOPTWLocalSearch(problem).improve(solution) > 0);
+        assertEquals(Arrays.asList(3, 4), route(solution, 0));
+        assertEquals(Arrays.asList(1, 2), route(solution, 1));
+        assertRoutesAreValid(solution, "swap");
+    }
+
+    @Test
+    public void twoOptRemovesCrossing() {
+        // Ningún movimiento de hasta tres POIs acorta esta ruta; invertir un tramo sí
+        TOPTW problem = instance(1, 0.0, 300.0, new double[][] {{-40, 0, 1}, {-30, 40, 1}, {-10, 20, 1},
+                {10, 30, 1}, {20, 40, 1}, {FAR, FAR, 1}});
+        TOPTWSolution solution = solution(problem, new int[] {1, 2, 3, 4, 5});
+        double before = routeDistance(solution, 0);
+        assertTrue(new TOPTWLocalSearch(problem).improve(solution) > 0);
+        assertTrue(routeDistance(solution, 0) < before - EPSILON);
+        assertRoutesAreValid(solution, "2-opt");
+    }
+
+    @Test
+    public void orOptMovesPOIWithinRoute() {
+        // Ninguna inversión acorta esta ruta; cambiar de sitio un POI sí
+        TOPTW problem = instance(1, 0.0, 300.0, new double[][] {{10, 10, 1}, {-10, 20, 1}, {-10, 40, 1},
+                {-20, 20, 1}, {FAR, FAR, 1}});
+        TOPTWSolution solution = solution(problem, new int[] {1, 2, 3, 4});
+        double before = routeDistance(solution, 0);
+        assertTrue(new TOPTWLocalSearch(problem).improve(solution) > 0);
+        assertTrue(routeDistance(solution, 0) < before - EPSILON);
+        assertRoutesAreValid(solution, "or-opt");
+    }
+
+    // POIs dados como {x, y, puntuación}; el depósito está en el origen y el tiempo de cada ruta es maxTime
+    private static TOPTW instance(int routes, double serviceTime, double maxTime, double[][] pois) {
+        int nodes = pois.length;
+        double[] x = new double[nodes + 1];
+        double[] y = new double[nodes + 1];
+        double[] service = new double[nodes + 1];
+        double[] score = new double[nodes + 1];
+        double[] ready = new double[nodes + 1];
+        double[] due = new double[nodes + 1];
+        due[0] = maxTime;
+        for (int i = 1; i <= nodes; i++) {
+            x[i] = pois[i - 1][0];
+            y[i] = pois[i - 1][1];
+            score[i] = pois[i - 1][2];
+            service[i] = serviceTime;
+            due[i] = maxTime;
+        }
+        return new TOPTW(nodes, routes, x, y, service, score, ready, due, maxTime);
+    }
+
+    private static TOPTWSolution solution(TOPTW problem, int[]... routes) {
+        TOPTWSolution solution = new TOPTWSolution(problem);
+        solution.initSolution();
+        for (int k = 0; k < routes.length; k++) {
+            int depot = k == 0 ? 0 : solution.addRoute();
+            int pre = depot;
+            for (int c : routes[k]) {
+                solution.setSuccessor(pre, c);
+                solution.setPredecessor(c, pre);
+                pre = c;
+            }
+            solution.setSuccessor(pre, depot);
+            solution.setPredecessor(depot, pre);
+        }
+        return solution;
+    }
+
+    private static List<Integer> route(TOPTWSolution solution, int k) {
+        int depot = solution.getIndexRoute(k);
+        List<Integer> route = new ArrayList<>();
+        for (int c = solution.getSuccessor(depot); c != depot; c = solution.getSuccessor(c)) {
+            route.add(c);
+        }
+        return route;
+    }
+
+    private static double routeDistance(TOPTWSolution solution, int k) {
+        int depot = solution.getIndexRoute(k);
+        double distance = 0.0;
+        int node = depot;
+        do {
+            distance += solution.getDistance(node, solution.getSuccessor(node));
+            node = solution.getSuccessor(node);
+        } while (node != depot);
+        return distance;
+    }
+
+    // Cada ruta supera el recorrido completo, cada POI está como mucho en una ruta y los enlaces son coherentes
+    private static void assertRoutesAreValid(TOPTWSolution solution, String context) {
+        TOPTW problem = solution.getProblem();
+        int[] visits = new int[problem.getPOIs() + 1];
+        for (int k = 0; k < solution.getCreatedRoutes(); k++) {
+            int depot = solution.getIndexRoute(k);
+            assertTrue(TOPTWGRASPTest.walk(solution, depot, TOPTWSolution.NO_INITIALIZED,
+                    TOPTWSolution.NO_INITIALIZED), context + ": route " + k + " is infeasible");
+            for (int c = solution.getSuccessor(depot); c != depot; c = solution.getSuccessor(c)) {
+                assertFalse(solution.isDepot(c), context + ": route " + k + " goes through another depot");
+                assertEquals(c, solution.getSuccessor(solution.getPredecessor(c)), context + ": broken link");
+                visits[c]++;
+            }
+        }
+        for (int c = 1; c <= problem.getPOIs(); c++) {
+            boolean routed = solution.getPredecessor(c) != TOPTWSolution.NO_INITIALIZED;
+            assertEquals(routed ? 1 : 0, visits[c], context + ": POI " + c + " visits");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @class TOPTWNeighbourhoodTest
+ * @brief Tests of the neighbour lists against a scan of every pair of POIs, and of the construction restricted to
+ * them against a full evaluation.
+ */
+public class TOPTWNeighbourhoodTest {
+    private static final int SIZE = 10;
+    private static final int SEEDS = 5;
+    private static final int MAX_SIZE_RCL = 3;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"c101", "r101", "rc101", "pr01"})
+    public void listsHoldNearestCompatiblePOIs(String name) throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance(name);
+        TOPTWNeighbourhood neighbourhood = new TOPTWNeighbourhood(problem, SIZE);
+        for (int i = 1; i <= problem.getPOIs(); i++) {
+            final int poi = i;
+            double[] expected = IntStream.rangeClosed(1, problem.getPOIs())
+                    .filter(j -> j != poi && (reaches(problem, poi, j) || reaches(problem, j, poi)))
+                    .mapToDouble(j -> problem.getDistance(poi, j)).sorted().limit(SIZE).toArray();
+            assertEquals(expected.length, neighbourhood.getEnd(i) - neighbourhood.getStart(i), name + ", POI " + i);
+            for (int n = 0; n < expected.length; n++) {
+                int neighbour = neighbourhood.getNeighbour(neighbourhood.getStart(i) + n);
+                assertEquals(expected[n], problem.getDistance(i, neighbour), name + ", POI " + i + ", neighbour " + n);
+                assertTrue(reaches(problem, i, neighbour) || reaches(problem, neighbour, i));
+            }
+        }
+    }
+
+    /**
+     * A POI can only be inserted next to POIs compatible with it, so lists long enough to hold all of them must not
+     * lose any feasible insertion: every step of the construction matches a full evaluation.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"c101", "r101", "rc101", "pr01"})
+    public void completeListsKeepEveryFeasibleInsertion(String name) throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance(name);
+        TOPTWGRASPTest.CheckedGRASP grasp = new TOPTWGRASPTest.CheckedGRASP(new TOPTWSolution(problem), name);
+        grasp.setNeighbourhoodSize(problem.getPOIs());
+        for (int seed = 0; seed < SEEDS; seed++) {
+            grasp.setSeed(seed);
+            grasp.computeGreedySolution(MAX_SIZE_RCL);
+        }
+        assertTrue(grasp.steps > 0);
+    }
+
+    private static boolean reaches(TOPTW problem, int from, int to) {
+        double departure = problem.getReadyTime(from) + problem.getServiceTime(from);
+        return departure + problem.getDistance(from, to) < problem.getDueTime(to);
+    }
+}
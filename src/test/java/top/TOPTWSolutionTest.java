@@ -0,0 +1,94 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @class TOPTWSolutionTest
+ * @brief Tests of resetting and copying solutions in place.
+ */
+public class TOPTWSolutionTest {
+    private static final int MAX_SIZE_RCL = 3;
+    private static final int ITERATIONS = 20;
+
+    private static TOPTWSolution construct(TOPTW problem, long seed) {
+        TOPTWSolution solution = new TOPTWSolution(problem);
+        TOPTWGRASP grasp = new TOPTWGRASP(solution, seed);
+        grasp.computeGreedySolution(MAX_SIZE_RCL);
+        return solution;
+    }
+
+    @Test
+    public void copyIntoOverwritesEveryRoute() throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance("c101");
+        TOPTWSolution source = construct(problem, 1L);
+        TOPTWSolution target = construct(problem, 2L);
+        assertFalse(source.equals(target));
+        source.copyInto(target);
+        assertArrayEquals(source.getPredecessors(), target.getPredecessors());
+        assertArrayEquals(source.getSuccessors(), target.getSuccessors());
+        assertEquals(source.getCreatedRoutes(), target.getCreatedRoutes());
+        assertEquals(source.getAvailableVehicles(), target.getAvailableVehicles());
+        for (int k = 0; k < source.getCreatedRoutes(); k++) {
+            assertEquals(source.getIndexRoute(k), target.getIndexRoute(k));
+        }
+        assertEquals(source.evaluateFitness(), target.evaluateFitness());
+    }
+
+    @Test
+    public void copyIntoRejectsSolutionOfAnotherProblem() throws IOException {
+        TOPTWSolution source = construct(TOPTWGRASPTest.readInstance("c101"), 1L);
+        TOPTWSolution target = new TOPTWSolution(TOPTWGRASPTest.readInstance("c101"));
+        assertThrows(IllegalArgumentException.class, () -> source.copyInto(target));
+    }
+
+    @Test
+    public void snapshotDoesNotFollowLaterChanges() throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance("r101");
+        TOPTWSolution solution = new TOPTWSolution(problem);
+        TOPTWGRASP grasp = new TOPTWGRASP(solution, 1L);
+        grasp.computeGreedySolution(MAX_SIZE_RCL);
+        int[] predecessors = solution.getPredecessors().clone();
+        double fitness = solution.evaluateFitness();
+        TOPTWSolution snapshot = solution.snapshot();
+        assertNotSame(solution.getPredecessors(), snapshot.getPredecessors());
+        grasp.setSeed(2L);
+        grasp.computeGreedySolution(MAX_SIZE_RCL);
+        assertFalse(solution.equals(snapshot));
+        assertArrayEquals(predecessors, snapshot.getPredecessors());
+        assertEquals(fitness, snapshot.evaluateFitness());
+    }
+
+    @Test
+    public void resetLeavesOnlyTheFirstRoute() throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance("c101");
+        TOPTWSolution solution = construct(problem, 1L);
+        assertTrue(solution.getCreatedRoutes() > 1);
+        solution.reset();
+        assertEquals(1, solution.getCreatedRoutes());
+        assertEquals(problem.getVehicles() - 1, solution.getAvailableVehicles());
+        assertEquals(0, solution.getSuccessor(0));
+        for (int c = 1; c < solution.getPredecessors().length; c++) {
+            assertEquals(TOPTWSolution.NO_INITIALIZED, solution.getPredecessor(c));
+            assertEquals(TOPTWSolution.NO_INITIALIZED, solution.getSuccessor(c));
+        }
+        assertEquals(0.0, solution.evaluateFitness());
+    }
+
+    @Test
+    public void bestSolutionScoresBestFitness() throws IOException {
+        TOPTW problem = TOPTWGRASPTest.readInstance("rc101");
+        TOPTWGRASP grasp = new TOPTWGRASP(new TOPTWSolution(problem), 1L);
+        TOPTWGRASPResult result = grasp.GRASP(ITERATIONS, MAX_SIZE_RCL);
+        assertNotSame(grasp.getSolution(), result.getBestSolution());
+        assertEquals(result.getBestFitness(), result.getBestSolution().evaluateFitness());
+    }
+}
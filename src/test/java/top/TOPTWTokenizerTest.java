@@ -0,0 +1,130 @@
+package top;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @class TOPTWTokenizerTest
+ * @brief Tests of the number parsing and error reporting of TOPTWTokenizer and TOPTWReader.
+ */
+public class TOPTWTokenizerTest {
+    private static final int VALUES = 200000;
+    private static final int FIELDS_PER_LINE = 7;
+
+    @TempDir
+    Path directory;
+
+    private static TOPTWTokenizer tokenizer(String text) {
+        return new TOPTWTokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), "test");
+    }
+
+    @Test
+    public void nextDoubleIsBitIdenticalToParseDouble() throws IOException {
+        Random random = new Random(1);
+        List<String> values = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < VALUES; i++) {
+            String value;
+            switch (i % 6) {
+                case 0:
+                    value = Double.toString(random.nextDouble() * 1000);
+                    break;
+                case 1:
+                    value = String.format(Locale.ROOT, "%.2f", random.nextDouble() * 100);
+                    break;
+                case 2:
+                    value = Integer.toString(random.nextInt(100000) - 50000);
+                    break;
+                case 3:
+                    // Más dígitos de los que caben en un long
+                    value = "0." + Math.abs(random.nextLong()) + Math.abs(random.nextLong());
+                    break;
+                case 4:
+                    value = Double.toString(random.nextGaussian() * 1e-5);
+                    break;
+                default:
+                    value = Double.toString(Double.longBitsToDouble(random.nextLong() >>> 2));
+                    break;
+            }
+            values.add(value);
+            text.append(value).append(i % FIELDS_PER_LINE == FIELDS_PER_LINE - 1 ? "\n" : " ");
+        }
+        TOPTWTokenizer tokenizer = tokenizer(text.toString());
+        for (String value : values) {
+            if (!tokenizer.hasNext()) {
+                tokenizer.nextLine();
+            }
+            double parsed = tokenizer.nextDouble();
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(value)), Double.doubleToRawLongBits(parsed),
+                    value);
+        }
+        assertTrue(tokenizer.isEndOfFile());
+    }
+
+    @Test
+    public void malformedNumberReportsItsLine() throws IOException {
+        TOPTWTokenizer tokenizer = tokenizer("1 2\r\n3 4.5\r\n\r\n6 8x5 7\n");
+        tokenizer.nextInt();
+        tokenizer.nextDouble();
+        tokenizer.nextLine();
+        tokenizer.nextInt();
+        tokenizer.nextDouble();
+        tokenizer.nextLine();
+        assertFalse(tokenizer.hasNext());
+        tokenizer.nextLine();
+        tokenizer.nextInt();
+        TOPTWFormatException e = assertThrows(TOPTWFormatException.class, tokenizer::nextDouble);
+        assertEquals(4, e.getLine());
+        assertEquals("test", e.getFile());
+    }
+
+    @Test
+    public void missingFieldReportsItsLine() throws IOException {
+        TOPTWTokenizer tokenizer = tokenizer("1 2\n3\n");
+        tokenizer.nextLine();
+        tokenizer.nextInt();
+        TOPTWFormatException e = assertThrows(TOPTWFormatException.class, tokenizer::nextInt);
+        assertEquals(2, e.getLine());
+    }
+
+    @Test
+    public void readerReportsLineOfMalformedNode() throws IOException {
+        Path file = this.directory.resolve("bad.txt");
+        Files.write(file, ("4 11 100 1\n"
+                + "0 200\n"
+                + "0 40.00 50.00 0 0 0 0 0 240\n"
+                + "1 25.00 8x5 10 20 1 1 1 130 190\n").getBytes(StandardCharsets.US_ASCII));
+        TOPTWFormatException e = assertThrows(TOPTWFormatException.class,
+                () -> TOPTWReader.readProblem(file.toString()));
+        assertEquals(4, e.getLine());
+        assertEquals(file.toString(), e.getFile());
+        assertTrue(e.getMessage().contains("8x5"), e.getMessage());
+    }
+
+    @Test
+    public void readerReportsTruncatedFile() throws IOException {
+        Path file = this.directory.resolve("short.txt");
+        Files.write(file, ("4 2 100 1\n"
+                + "0 200\n"
+                + "0 40.00 50.00 0 0 0 0 0 240\n"
+                + "1 25.00 85.00 10 20 1 1 1 130 190\n").getBytes(StandardCharsets.US_ASCII));
+        TOPTWFormatException e = assertThrows(TOPTWFormatException.class,
+                () -> TOPTWReader.readProblem(file.toString()));
+        assertEquals(5, e.getLine());
+    }
+}